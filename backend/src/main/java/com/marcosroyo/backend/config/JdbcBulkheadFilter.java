@@ -0,0 +1,73 @@
+package com.marcosroyo.backend.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Limita las peticiones en curso cuando la capa web corre sobre hilos virtuales. Con hilos
+ * virtuales Tomcat ya no pone tope a la concurrencia y, aunque sin open-in-view cada peticion
+ * solo retiene la conexion JDBC durante sus transacciones, miles de peticiones simultaneas
+ * acabarian esperando al pool de conexiones. El semaforo deja pasar tantas como conexiones hay
+ * y responde 503 a las que no consiguen permiso a tiempo.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class JdbcBulkheadFilter extends OncePerRequestFilter {
+
+  private static final Logger logger = LoggerFactory.getLogger(JdbcBulkheadFilter.class);
+
+  @Value("${web.bulkhead.permits:${spring.datasource.hikari.maximum-pool-size:10}}")
+  private int permits;
+
+  @Value("${web.bulkhead.acquire-timeout-ms:2000}")
+  private long acquireTimeoutMs;
+
+  private Semaphore semaphore;
+
+  @PostConstruct
+  public void init() {
+    semaphore = new Semaphore(permits, true);
+    logger.info("Virtual-thread request bulkhead enabled with {} permits", permits);
+  }
+
+  public int getAvailablePermits() {
+    return semaphore.availablePermits();
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain chain) throws ServletException, IOException {
+    boolean acquired;
+    try {
+      acquired = semaphore.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+    if (!acquired) {
+      logger.debug("Bulkhead full, rejecting {} {}", request.getMethod(), request.getRequestURI());
+      response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+      response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+      return;
+    }
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      semaphore.release();
+    }
+  }
+}
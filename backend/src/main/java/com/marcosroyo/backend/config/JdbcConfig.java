@@ -1,8 +1,10 @@
 package com.marcosroyo.backend.config;
 
 import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 @Configuration
@@ -12,4 +14,31 @@ public class JdbcConfig {
     public JdbcTemplate jdbcTemplate(DataSource dataSource) {
         return new JdbcTemplate(dataSource);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Envuelve el DataSource para contar las sentencias SQL de cada peticion
+     * (ver {@link SqlStatementBudgetFilter}).
+     */
+    @Bean
+    public static BeanPostProcessor statementCountingPostProcessor() {
+        return new StatementCountingPostProcessor();
+    }
+
+    // Se aplica antes que cualquier otro envoltorio del DataSource
+    private static class StatementCountingPostProcessor implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource
+                && !(bean instanceof StatementCountingDataSource)) {
+                return new StatementCountingDataSource(dataSource);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
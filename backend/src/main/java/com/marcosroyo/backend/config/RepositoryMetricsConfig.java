@@ -0,0 +1,87 @@
+package com.marcosroyo.backend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Numero de filas devueltas por cada metodo de repositorio (repository.rows, con las etiquetas
+ * repository y method). Los tiempos de cada consulta ya los registra Spring Boot en
+ * spring.data.repository.invocations.
+ */
+@Configuration
+public class RepositoryMetricsConfig {
+
+  @Bean
+  public static BeanPostProcessor repositoryRowsPostProcessor(
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+          factoryBean.addRepositoryFactoryCustomizer(factory ->
+              factory.addRepositoryProxyPostProcessor((proxyFactory, repository) ->
+                  proxyFactory.addAdvice(new RowCounter(meterRegistry.getObject(),
+                      repository.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+      }
+    };
+  }
+
+  private static class RowCounter implements MethodInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final String repository;
+    private final Map<Method, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    RowCounter(MeterRegistry meterRegistry, String repository) {
+      this.meterRegistry = meterRegistry;
+      this.repository = repository;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+      Object result = invocation.proceed();
+      int rows = rows(result);
+      if (rows >= 0) {
+        summaries.computeIfAbsent(invocation.getMethod(), method ->
+                DistributionSummary.builder("repository.rows")
+                    .description("Filas devueltas por los metodos de repositorio")
+                    .tag("repository", repository)
+                    .tag("method", method.getName())
+                    .register(meterRegistry))
+            .record(rows);
+      }
+      return result;
+    }
+
+    /**
+     * Filas de un resultado, o -1 si no es una consulta (save, delete, count, exists...).
+     */
+    private static int rows(Object result) {
+      if (result instanceof Collection<?> collection) {
+        return collection.size();
+      }
+      if (result instanceof Slice<?> slice) {
+        return slice.getNumberOfElements();
+      }
+      if (result instanceof Optional<?> optional) {
+        return optional.isPresent() ? 1 : 0;
+      }
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package com.marcosroyo.backend.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache de segundo nivel de Hibernate en memoria (JCache sobre Caffeine): entidades User y Reward
+ * y resultados de las consultas por id y por usuario de los repositorios. Cada region tiene un
+ * tamaño maximo y caduca tras un tiempo desde que se escribe; la de marcas de tiempo, que Hibernate
+ * usa para descartar consultas de tablas modificadas, no tiene limite (una entrada por tabla).
+ *
+ * <p>Las escrituras por JdbcTemplate no pasan por Hibernate y las invalida
+ * {@link com.marcosroyo.backend.service.SecondLevelCacheEvictor}. Los aciertos, fallos, escrituras y
+ * expulsiones por tamaño de cada region se publican en cache.gets, cache.puts y cache.evictions
+ * (etiqueta cache); las invalidaciones, en cache.invalidations.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+  public static final String USERS = "users";
+  public static final String REWARDS = "rewards";
+  public static final String USER_QUERIES = "query.users";
+  public static final String TASK_QUERIES = "query.tasks";
+  public static final String REWARD_QUERIES = "query.rewards";
+
+  // Cada contexto de Spring (por ejemplo en los tests) necesita su propia cache
+  private static final AtomicInteger CACHE_MANAGERS = new AtomicInteger();
+
+  @Value("${cache.entities.max-size:10000}")
+  private long entitiesMaxSize;
+
+  @Value("${cache.queries.max-size:5000}")
+  private long queriesMaxSize;
+
+  @Value("${cache.expire-after-write-minutes:10}")
+  private long expireAfterWriteMinutes;
+
+  @Bean(destroyMethod = "close")
+  public CacheManager secondLevelCacheManager() {
+    CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+        .getCacheManager(URI.create("hibernate-" + CACHE_MANAGERS.incrementAndGet()),
+            getClass().getClassLoader());
+    createRegion(cacheManager, USERS, entitiesMaxSize, true);
+    createRegion(cacheManager, REWARDS, entitiesMaxSize, true);
+    createRegion(cacheManager, USER_QUERIES, queriesMaxSize, true);
+    createRegion(cacheManager, TASK_QUERIES, queriesMaxSize, true);
+    createRegion(cacheManager, REWARD_QUERIES, queriesMaxSize, true);
+    createRegion(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+        queriesMaxSize, true);
+    createRegion(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+        0, false);
+    return cacheManager;
+  }
+
+  /**
+   * Solo se usan las regiones creadas aqui: si una entidad o consulta pide otra, falla al arrancar
+   * en lugar de crear una region sin limite.
+   */
+  @Bean
+  public HibernatePropertiesCustomizer secondLevelCacheCustomizer(
+      CacheManager secondLevelCacheManager) {
+    return properties -> {
+      properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+      properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+      properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+      properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+      properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+    };
+  }
+
+  @Bean
+  public MeterBinder secondLevelCacheMetrics(CacheManager secondLevelCacheManager) {
+    return registry -> secondLevelCacheManager.getCacheNames().forEach(name ->
+        JCacheMetrics.monitor(registry, secondLevelCacheManager.getCache(name)));
+  }
+
+  private void createRegion(CacheManager cacheManager, String name, long maxSize,
+      boolean expires) {
+    CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+    if (expires) {
+      configuration.setMaximumSize(OptionalLong.of(maxSize));
+      configuration.setExpireAfterWrite(
+          OptionalLong.of(TimeUnit.MINUTES.toNanos(expireAfterWriteMinutes)));
+    }
+    configuration.setStatisticsEnabled(true);
+    cacheManager.createCache(name, configuration);
+  }
+}
@@ -0,0 +1,133 @@
+package com.marcosroyo.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Cuenta las sentencias SQL de cada peticion. El total se devuelve en la cabecera
+ * X-SQL-Statements y se registra en la metrica http.server.sql.statements por endpoint. Los
+ * endpoints con presupuesto (sql.budget.endpoints, en sql-budgets.properties) que lo superan se
+ * registran en http.server.sql.budget.exceeded y en el log; con sql.budget.fail-on-exceed (las
+ * pruebas) la peticion falla, de modo que un listado que se vuelve N+1 rompe su test.
+ *
+ * <p>La cabecera se escribe justo antes del cuerpo, por lo que no incluye lo que se consulte
+ * mientras se serializa la respuesta; la metrica y el presupuesto si lo incluyen.
+ */
+@Component
+@PropertySource("classpath:sql-budgets.properties")
+public class SqlStatementBudgetFilter extends OncePerRequestFilter {
+
+  public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+
+  private static final Logger logger = LoggerFactory.getLogger(SqlStatementBudgetFilter.class);
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("#{${sql.budget.endpoints:{:}}}")
+  private Map<String, Integer> budgets;
+
+  @Value("${sql.budget.fail-on-exceed:false}")
+  private boolean failOnExceed;
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain chain) throws ServletException, IOException {
+    AtomicInteger counter = SqlStatementCounter.start();
+    StatementHeaderResponse wrapped = new StatementHeaderResponse(response, counter);
+    try {
+      chain.doFilter(request, wrapped);
+    } finally {
+      SqlStatementCounter.stop();
+    }
+    wrapped.writeHeader();
+    check(request, counter.get());
+  }
+
+  private void check(HttpServletRequest request, int statements) {
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    String endpoint = request.getMethod() + " " + (pattern != null ? pattern : "UNKNOWN");
+    DistributionSummary.builder("http.server.sql.statements")
+        .description("Sentencias SQL ejecutadas por peticion")
+        .tag("method", request.getMethod())
+        .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+        .register(meterRegistry)
+        .record(statements);
+
+    Integer budget = budgets.get(endpoint);
+    if (budget == null || statements <= budget) {
+      return;
+    }
+    Counter.builder("http.server.sql.budget.exceeded")
+        .description("Peticiones que superan su presupuesto de sentencias SQL")
+        .tag("method", request.getMethod())
+        .tag("uri", pattern.toString())
+        .register(meterRegistry)
+        .increment();
+    String message = endpoint + " ejecuto " + statements + " sentencias SQL (presupuesto "
+        + budget + ")";
+    if (failOnExceed) {
+      throw new IllegalStateException(message);
+    }
+    logger.warn(message);
+  }
+
+  /**
+   * Escribe la cabecera con las sentencias contadas en cuanto se empieza a escribir el cuerpo, o
+   * al final si la respuesta no tiene cuerpo.
+   */
+  private static class StatementHeaderResponse extends HttpServletResponseWrapper {
+
+    private final AtomicInteger counter;
+    private boolean headerWritten;
+
+    StatementHeaderResponse(HttpServletResponse response, AtomicInteger counter) {
+      super(response);
+      this.counter = counter;
+    }
+
+    void writeHeader() {
+      if (!headerWritten && !isCommitted()) {
+        setIntHeader(STATEMENTS_HEADER, counter.get());
+      }
+      headerWritten = true;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      writeHeader();
+      return super.getOutputStream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      writeHeader();
+      return super.getWriter();
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+      writeHeader();
+      super.flushBuffer();
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package com.marcosroyo.backend.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contador de sentencias SQL de la peticion en curso. Se hereda en los hilos creados durante la
+ * peticion (por ejemplo los hilos virtuales del resumen de usuario), de modo que sus consultas
+ * cuentan para la misma peticion. Fuera de una peticion no cuenta nada.
+ */
+public final class SqlStatementCounter {
+
+  private static final InheritableThreadLocal<AtomicInteger> CURRENT =
+      new InheritableThreadLocal<>();
+
+  private SqlStatementCounter() {
+  }
+
+  static AtomicInteger start() {
+    AtomicInteger counter = new AtomicInteger();
+    CURRENT.set(counter);
+    return counter;
+  }
+
+  static void stop() {
+    CURRENT.remove();
+  }
+
+  static void increment() {
+    AtomicInteger counter = CURRENT.get();
+    if (counter != null) {
+      counter.incrementAndGet();
+    }
+  }
+
+  /**
+   * Sentencias ejecutadas hasta ahora en la peticion en curso, o -1 si no hay ninguna.
+   */
+  public static int current() {
+    AtomicInteger counter = CURRENT.get();
+    return counter != null ? counter.get() : -1;
+  }
+
+  /**
+   * Sentencias ejecutadas desde que {@link #current()} devolvio el valor indicado, o -1 si no hay
+   * peticion en curso.
+   */
+  public static int since(int before) {
+    return before >= 0 ? current() - before : -1;
+  }
+}
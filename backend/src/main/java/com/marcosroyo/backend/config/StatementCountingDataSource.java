@@ -0,0 +1,77 @@
+package com.marcosroyo.backend.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Envuelve las conexiones para contar en {@link SqlStatementCounter} cada sentencia ejecutada,
+ * venga de Hibernate o de JdbcTemplate. Un lote (executeBatch) cuenta como una sentencia.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+  private static final Set<String> STATEMENT_FACTORIES =
+      Set.of("createStatement", "prepareStatement", "prepareCall");
+
+  private static final Set<String> EXECUTIONS = Set.of("execute", "executeQuery",
+      "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+  public StatementCountingDataSource(DataSource target) {
+    super(target);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return wrap(super.getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return wrap(super.getConnection(username, password));
+  }
+
+  private static Connection wrap(Connection connection) {
+    return (Connection) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+        new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+          Object result = invoke(connection, method, args);
+          if (STATEMENT_FACTORIES.contains(method.getName())) {
+            return wrap((Statement) result, statementType(method.getName()));
+          }
+          return result;
+        });
+  }
+
+  private static Class<?> statementType(String factory) {
+    return switch (factory) {
+      case "prepareStatement" -> PreparedStatement.class;
+      case "prepareCall" -> CallableStatement.class;
+      default -> Statement.class;
+    };
+  }
+
+  private static Statement wrap(Statement statement, Class<?> type) {
+    return (Statement) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+        new Class<?>[] {type}, (proxy, method, args) -> {
+          if (EXECUTIONS.contains(method.getName())) {
+            SqlStatementCounter.increment();
+          }
+          return invoke(statement, method, args);
+        });
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getTargetException();
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package com.marcosroyo.backend.controller;
+
+import com.marcosroyo.backend.dto.ApiError;
+import com.marcosroyo.backend.exceptions.InvalidRequestException;
+import com.marcosroyo.backend.exceptions.ResourceNotFoundException;
+import java.time.format.DateTimeParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+
+/**
+ * Traduce las excepciones de los controladores a respuestas con cuerpo {@link ApiError}. Los casos
+ * esperados (recurso inexistente, peticion no valida) llegan como excepciones sin traza y su cuerpo
+ * ya esta creado; solo los fallos inesperados se registran con la pila completa.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler extends ResponseEntityExceptionHandler {
+
+  private static final Logger logger = LoggerFactory.getLogger(ApiExceptionHandler.class);
+
+  @ExceptionHandler(ResourceNotFoundException.class)
+  public ResponseEntity<ApiError> handleNotFound(ResourceNotFoundException e) {
+    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getBody());
+  }
+
+  @ExceptionHandler(InvalidRequestException.class)
+  public ResponseEntity<ApiError> handleInvalidRequest(InvalidRequestException e) {
+    return ResponseEntity.badRequest().body(e.getBody());
+  }
+
+  @ExceptionHandler(DateTimeParseException.class)
+  public ResponseEntity<ApiError> handleInvalidDate(DateTimeParseException e) {
+    return ResponseEntity.badRequest().body(ApiError.INVALID_DATE);
+  }
+
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ResponseEntity<ApiError> handleIllegalArgument(IllegalArgumentException e) {
+    return ResponseEntity.badRequest().body(new ApiError(e.getMessage()));
+  }
+
+  @ExceptionHandler(Exception.class)
+  public ResponseEntity<ApiError> handleUnexpected(Exception e) {
+    logger.error("Error no controlado", e);
+    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiError.INTERNAL_ERROR);
+  }
+
+  /**
+   * Errores propios de Spring MVC (parametros que faltan, cuerpo ilegible, ruta inexistente...):
+   * se mantiene su codigo de estado pero con el mismo formato de cuerpo que el resto de la API.
+   */
+  @Override
+  protected ResponseEntity<Object> handleExceptionInternal(Exception ex, Object body,
+      HttpHeaders headers, HttpStatusCode statusCode, WebRequest request) {
+    String detail = body instanceof ProblemDetail problem ? problem.getDetail() : null;
+    ApiError error = new ApiError(detail != null ? detail : ex.getMessage());
+    return super.handleExceptionInternal(ex, error, headers, statusCode, request);
+  }
+}
@@ -0,0 +1,101 @@
+package com.marcosroyo.backend.controller;
+
+import com.marcosroyo.backend.exceptions.InvalidRequestException;
+import com.marcosroyo.backend.service.ExportService;
+import com.marcosroyo.backend.service.ExportService.Dataset;
+import com.marcosroyo.backend.service.ExportService.Format;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Descarga del historial completo (tasks, rewards o points) en NDJSON o CSV. La respuesta se
+ * escribe en el mismo hilo de la peticion mientras se leen las filas, de modo que el recuento de
+ * sentencias SQL y el limite de conexiones de la capa web la siguen cubriendo.
+ *
+ * <p>Cada exportacion retiene una conexion durante toda la descarga, que con un cliente lento
+ * puede durar minutos, asi que solo se admiten export.max-concurrent a la vez (menos que el pool)
+ * y las demas reciben 503 en lugar de dejar sin conexiones al resto de peticiones.
+ */
+@RestController
+@RequestMapping("/admin/export")
+@CrossOrigin(origins = "*")
+public class ExportController {
+
+  private static final Logger logger = LoggerFactory.getLogger(ExportController.class);
+
+  @Autowired
+  private ExportService exportService;
+
+  @Value("${export.max-concurrent:2}")
+  private int maxConcurrent;
+
+  private Semaphore running;
+
+  @PostConstruct
+  public void init() {
+    if (maxConcurrent <= 0) {
+      throw new IllegalStateException(
+          "export.max-concurrent debe ser mayor que 0 (es " + maxConcurrent + ")");
+    }
+    running = new Semaphore(maxConcurrent);
+  }
+
+  @GetMapping("/{dataset}")
+  public void export(@PathVariable String dataset, @RequestParam boolean isAdmin,
+      @RequestParam(defaultValue = "ndjson") String format,
+      @RequestParam(required = false) Long userId, HttpServletResponse response)
+      throws IOException {
+    if (!isAdmin) {
+      response.setStatus(HttpStatus.FORBIDDEN.value());
+      return;
+    }
+    Dataset selected = parse(Dataset.class, dataset, "Exportacion no valida: ");
+    Format selectedFormat = parse(Format.class, format, "Formato no valido: ");
+    if (!running.tryAcquire()) {
+      logger.debug("Export limit reached, rejecting {}", dataset);
+      response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+      response.setHeader(HttpHeaders.RETRY_AFTER, "30");
+      return;
+    }
+    try {
+      write(selected, selectedFormat, dataset, userId, response);
+    } finally {
+      running.release();
+    }
+  }
+
+  private void write(Dataset selected, Format selectedFormat, String dataset, Long userId,
+      HttpServletResponse response) throws IOException {
+    response.setContentType(selectedFormat.getContentType());
+    response.setCharacterEncoding("UTF-8");
+    response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+        .filename(dataset.toLowerCase(Locale.ROOT) + "." + selectedFormat.getExtension())
+        .build()
+        .toString());
+    exportService.export(selected, selectedFormat, userId, response.getOutputStream());
+  }
+
+  private static <E extends Enum<E>> E parse(Class<E> type, String value, String message) {
+    try {
+      return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new InvalidRequestException(message + value);
+    }
+  }
+}
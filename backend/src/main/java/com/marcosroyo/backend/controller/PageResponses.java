@@ -0,0 +1,29 @@
+package com.marcosroyo.backend.controller;
+
+import com.marcosroyo.backend.dto.KeysetPage;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Respuestas paginadas: el cuerpo sigue siendo la lista de elementos y el cursor de la siguiente
+ * pagina viaja en la cabecera X-Next-Cursor, para no romper a los clientes que esperan una lista.
+ */
+final class PageResponses {
+
+  static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  private PageResponses() {
+  }
+
+  static boolean isPaged(Long after, Integer limit) {
+    return after != null || limit != null;
+  }
+
+  static <T> ResponseEntity<List<T>> of(KeysetPage<T> page) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (page.getNextCursor() != null) {
+      response.header(NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+    }
+    return response.body(page.getItems());
+  }
+}
@@ -0,0 +1,79 @@
+package com.marcosroyo.backend.controller;
+
+import com.marcosroyo.backend.dto.RecordingDto;
+import com.marcosroyo.backend.service.FlightRecordingService;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Control de las grabaciones de Flight Recorder: iniciar, parar, volcar a un fichero local del
+ * servidor para analizarlo despues (JDK Mission Control, jfr print) y descartar.
+ */
+@RestController
+@RequestMapping("/admin/recordings")
+@CrossOrigin(origins = "*")
+public class RecordingController {
+
+  @Autowired
+  private FlightRecordingService recordingService;
+
+  @GetMapping
+  public ResponseEntity<List<RecordingDto>> getRecordings(@RequestParam boolean isAdmin) {
+    if (!isAdmin) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    return ResponseEntity.ok(recordingService.getRecordings());
+  }
+
+  @PostMapping
+  public ResponseEntity<Object> startRecording(@RequestParam boolean isAdmin,
+      @RequestParam(required = false) String name,
+      @RequestParam(required = false) Long maxAgeMinutes) throws IOException, ParseException {
+    if (!isAdmin) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    return ResponseEntity.status(HttpStatus.CREATED)
+        .body(recordingService.start(name, maxAgeMinutes));
+  }
+
+  @PostMapping("/{id}/stop")
+  public ResponseEntity<Object> stopRecording(@PathVariable long id,
+      @RequestParam boolean isAdmin) {
+    if (!isAdmin) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    return ResponseEntity.ok(recordingService.stop(id));
+  }
+
+  @PostMapping("/{id}/dump")
+  public ResponseEntity<Object> dumpRecording(@PathVariable long id,
+      @RequestParam boolean isAdmin) throws IOException {
+    if (!isAdmin) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    return ResponseEntity.ok(Map.of("file", recordingService.dump(id).toString()));
+  }
+
+  @DeleteMapping("/{id}")
+  public ResponseEntity<Object> deleteRecording(@PathVariable long id,
+      @RequestParam boolean isAdmin) {
+    if (!isAdmin) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    recordingService.delete(id);
+    return ResponseEntity.noContent().build();
+  }
+}
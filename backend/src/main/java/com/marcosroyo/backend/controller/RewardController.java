@@ -1,14 +1,19 @@
 package com.marcosroyo.backend.controller;
 
 import com.marcosroyo.backend.dto.RewardDto;
+import com.marcosroyo.backend.dto.RewardRedemptionResult;
+import com.marcosroyo.backend.dto.RewardRedemptionResult.Outcome;
+import com.marcosroyo.backend.exceptions.ResourceNotFoundException;
 import com.marcosroyo.backend.model.Reward;
 import com.marcosroyo.backend.model.User;
 import com.marcosroyo.backend.repository.UserRepository;
 import com.marcosroyo.backend.service.RewardService;
+import com.marcosroyo.backend.service.UserChangeVersions;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -21,10 +26,11 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/rewards")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {PageResponses.NEXT_CURSOR_HEADER, HttpHeaders.ETAG})
 public class RewardController {
 
   @Autowired
@@ -33,26 +39,60 @@ public class RewardController {
   @Autowired
   private UserRepository userRepo;
 
+  @Autowired
+  private UserChangeVersions changeVersions;
+
   @GetMapping
   public ResponseEntity<List<RewardDto>> getAllRewards(@RequestParam Long userId,
-      @RequestParam boolean isAdmin) {
+      @RequestParam boolean isAdmin,
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit,
+      WebRequest request) {
+    if (request.checkNotModified(changeVersions.etag(isAdmin ? null : userId, null))) {
+      return null;
+    }
+    if (PageResponses.isPaged(after, limit)) {
+      return PageResponses.of(rewardService.getAllRewardsPage(userId, isAdmin, after, limit));
+    }
     return ResponseEntity.ok(rewardService.getAllRewards(userId, isAdmin));
   }
 
   @GetMapping("/available")
   public ResponseEntity<List<RewardDto>> getAvailableRewards(@RequestParam Long userId,
-      @RequestParam boolean isAdmin) {
+      @RequestParam boolean isAdmin,
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit,
+      WebRequest request) {
+    if (request.checkNotModified(changeVersions.etag(isAdmin ? null : userId, null))) {
+      return null;
+    }
+    if (PageResponses.isPaged(after, limit)) {
+      return PageResponses.of(rewardService.getAvailableRewardsPage(userId, isAdmin, after, limit));
+    }
     return ResponseEntity.ok(rewardService.getAvailableRewards(userId, isAdmin));
   }
 
   @GetMapping("/redeemed")
   public ResponseEntity<List<RewardDto>> getRedeemedRewards(@RequestParam Long userId,
-      @RequestParam boolean isAdmin) {
+      @RequestParam boolean isAdmin,
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit,
+      WebRequest request) {
+    if (request.checkNotModified(changeVersions.etag(isAdmin ? null : userId, null))) {
+      return null;
+    }
+    if (PageResponses.isPaged(after, limit)) {
+      return PageResponses.of(rewardService.getRedeemedRewardsPage(userId, isAdmin, after, limit));
+    }
     return ResponseEntity.ok(rewardService.getRedeemedRewards(userId, isAdmin));
   }
 
   @GetMapping("/{rewardId}")
-  public ResponseEntity<RewardDto> getRewardById(@PathVariable Long rewardId) {
+  public ResponseEntity<RewardDto> getRewardById(@PathVariable Long rewardId,
+      WebRequest request) {
+    if (request.checkNotModified(changeVersions.etag(null, null))) {
+      return null;
+    }
     return ResponseEntity.ok(rewardService.getRewardById(rewardId));
   }
 
@@ -87,29 +127,26 @@ public class RewardController {
       @PathVariable Long id,
       @RequestParam(required = false, defaultValue = "0") Long userId,
       @RequestParam(required = false, defaultValue = "false") boolean isAdmin) {
-    try {
-      // Obtener la recompensa canjeada
-      RewardDto redeemedReward = rewardService.redeemReward(id);
-      
-      // Obtener los puntos actualizados del usuario asignado
-      int updatedPoints = 0;
-      if (redeemedReward != null && redeemedReward.getUserId() != null) {
-        Long assignedUserId = redeemedReward.getUserId();
-        Optional<User> user = userRepo.findById(assignedUserId);
-        if (user.isPresent()) {
-          updatedPoints = user.get().getPoints();
-        }
-      }
-      
-      // Devolver un objeto con la recompensa y los puntos actualizados
-      return ResponseEntity.ok(Map.of(
-          "reward", redeemedReward,
-          "points", updatedPoints
-      ));
-    } catch (Exception e) {
-      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-          .body(Map.of("error", e.getMessage()));
+    RewardRedemptionResult result = rewardService.redeemReward(id);
+    if (result.getOutcome() == Outcome.NOT_FOUND) {
+      throw ResourceNotFoundException.REWARD;
     }
+
+    // Devolver un objeto con la recompensa y los puntos del usuario asignado
+    int updatedPoints = result.getPoints() != null ? result.getPoints() : 0;
+    return switch (result.getOutcome()) {
+      case ALREADY_REDEEMED -> ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+          "error", "La recompensa ya fue canjeada",
+          "reward", result.getReward(),
+          "points", updatedPoints));
+      case INSUFFICIENT_POINTS -> ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+          "error", "El usuario no tiene suficientes puntos",
+          "reward", result.getReward(),
+          "points", updatedPoints));
+      default -> ResponseEntity.ok(Map.of(
+          "reward", result.getReward(),
+          "points", updatedPoints));
+    };
   }
 
   @DeleteMapping("/{id}")
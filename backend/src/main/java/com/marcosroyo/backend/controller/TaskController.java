@@ -1,14 +1,17 @@
 package com.marcosroyo.backend.controller;
 
+import com.marcosroyo.backend.dto.ApiError;
+import com.marcosroyo.backend.dto.TaskBatchRequest;
+import com.marcosroyo.backend.dto.TaskCompletionResult;
 import com.marcosroyo.backend.dto.TaskDto;
 import com.marcosroyo.backend.model.Task;
 import com.marcosroyo.backend.model.User;
 import com.marcosroyo.backend.service.TaskService;
-import com.marcosroyo.backend.repository.UserRepository;
+import com.marcosroyo.backend.service.UserChangeVersions;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -21,39 +24,79 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/tasks")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {PageResponses.NEXT_CURSOR_HEADER, HttpHeaders.ETAG})
 public class TaskController {
 
   @Autowired
   private TaskService taskService;
-  
+
   @Autowired
-  private UserRepository userRepo;
+  private UserChangeVersions changeVersions;
 
   @GetMapping
   public ResponseEntity<List<TaskDto>> getAllTasks(@RequestParam Long userId,
-      @RequestParam boolean isAdmin) {
-    return ResponseEntity.ok(taskService.getAllTasks(userId, isAdmin));
+      @RequestParam boolean isAdmin,
+      @RequestParam(required = false) String currentDate,
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit,
+      WebRequest request) {
+    java.time.LocalDate date = parseClientDate(currentDate);
+    if (request.checkNotModified(tasksETag(isAdmin ? null : userId, date))) {
+      return null;
+    }
+    if (PageResponses.isPaged(after, limit)) {
+      return PageResponses.of(taskService.getAllTasksPage(userId, isAdmin, after, limit, date));
+    }
+    return ResponseEntity.ok(taskService.getAllTasks(userId, isAdmin, date));
   }
 
   @GetMapping("/incomplete")
   public ResponseEntity<List<TaskDto>> getIncompleteTasks(@RequestParam Long userId,
-      @RequestParam boolean isAdmin) {
-    return ResponseEntity.ok(taskService.getIncompleteTasks(userId, isAdmin));
+      @RequestParam boolean isAdmin,
+      @RequestParam(required = false) String currentDate,
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit,
+      WebRequest request) {
+    java.time.LocalDate date = parseClientDate(currentDate);
+    if (request.checkNotModified(tasksETag(isAdmin ? null : userId, date))) {
+      return null;
+    }
+    if (PageResponses.isPaged(after, limit)) {
+      return PageResponses.of(taskService.getIncompleteTasksPage(userId, isAdmin, after, limit, date));
+    }
+    return ResponseEntity.ok(taskService.getIncompleteTasks(userId, isAdmin, date));
   }
 
   @GetMapping("/completed")
   public ResponseEntity<List<TaskDto>> getCompletedTasks(@RequestParam Long userId,
-      @RequestParam boolean isAdmin) {
-    return ResponseEntity.ok(taskService.getCompletedTasks(userId, isAdmin));
+      @RequestParam boolean isAdmin,
+      @RequestParam(required = false) String currentDate,
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit,
+      WebRequest request) {
+    java.time.LocalDate date = parseClientDate(currentDate);
+    if (request.checkNotModified(tasksETag(isAdmin ? null : userId, date))) {
+      return null;
+    }
+    if (PageResponses.isPaged(after, limit)) {
+      return PageResponses.of(taskService.getCompletedTasksPage(userId, isAdmin, after, limit, date));
+    }
+    return ResponseEntity.ok(taskService.getCompletedTasks(userId, isAdmin, date));
   }
 
   @GetMapping("/{taskId}")
-  public ResponseEntity<TaskDto> getTaskById(@PathVariable Long taskId) {
-    return ResponseEntity.ok(taskService.getTaskById(taskId));
+  public ResponseEntity<TaskDto> getTaskById(@PathVariable Long taskId,
+      @RequestParam(required = false) String currentDate,
+      WebRequest request) {
+    java.time.LocalDate date = parseClientDate(currentDate);
+    if (request.checkNotModified(tasksETag(null, date))) {
+      return null;
+    }
+    return ResponseEntity.ok(taskService.getTaskById(taskId, date));
   }
 
   @PostMapping
@@ -74,67 +117,56 @@ public class TaskController {
     return ResponseEntity.status(HttpStatus.CREATED).body(createdTask);
   }
 
+  @PostMapping("/batch")
+  public ResponseEntity<Object> createTasks(@RequestBody TaskBatchRequest batch,
+      @RequestParam boolean isAdmin) {
+    if (!isAdmin) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    if (batch.tasks == null || batch.tasks.isEmpty()) {
+      return ResponseEntity.badRequest().body(new ApiError("No se enviaron tareas"));
+    }
+
+    List<TaskDto> createdTasks = taskService.createTasks(batch.tasks, batch.assignedUserIds);
+    return ResponseEntity.status(HttpStatus.CREATED).body(createdTasks);
+  }
+
   @PutMapping("/{taskId}/complete")
   public ResponseEntity<Object> completeTask(
       @PathVariable Long taskId,
       @RequestParam(required = false, defaultValue = "0") Long userId,
       @RequestParam(required = false, defaultValue = "false") boolean isAdmin,
       @RequestParam(required = false) String clientDate) {
-    try {
-      // Parsear fecha del cliente si se proporciona, si no usar fecha del servidor
-      java.time.LocalDate completionDate = null;
-      if (clientDate != null && !clientDate.isEmpty()) {
-          try {
-              completionDate = java.time.LocalDate.parse(clientDate);
-          } catch (Exception e) {
-              // Ignorar errores de parseo de fecha
-          }
-      }
-      
-      // Completar la tarea usando la fecha parseada o null (que usará la fecha del servidor)
-      TaskDto completedTask = taskService.completeTask(taskId, completionDate);
-      
-      // Obtener los puntos actualizados del usuario
-      int updatedPoints = 0;
-      if (completedTask != null && completedTask.getAssignedUserId() != null) {
-          Optional<User> userOpt = userRepo.findById(completedTask.getAssignedUserId());
-          if (userOpt.isPresent()) {
-              updatedPoints = userOpt.get().getPoints();
-          }
-      }
-      
-      // Devolver un objeto con la tarea y los puntos actualizados
-      return ResponseEntity.ok(Map.of(
-          "task", completedTask,
-          "points", updatedPoints
-      ));
-    } catch (Exception e) {
-      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
-          "error", e.getMessage()
-      ));
-    }
+    // Parsear fecha del cliente si se proporciona, si no usar fecha del servidor
+    java.time.LocalDate completionDate = parseClientDate(clientDate);
+
+    // Completar la tarea usando la fecha parseada o null (que usará la fecha del servidor)
+    TaskCompletionResult result = taskService.completeTaskWithBalance(taskId, completionDate);
+    int updatedPoints = result.getPoints() != null ? result.getPoints() : 0;
+
+    // Devolver un objeto con la tarea y los puntos actualizados
+    return ResponseEntity.ok(Map.of(
+        "task", result.getTask(),
+        "points", updatedPoints
+    ));
   }
 
   @GetMapping("/check-daily")
   public ResponseEntity<Object> checkAndResetDailyTasks(
       @RequestParam Long userId,
       @RequestParam String currentDate) {
-    try {
-      // Parsear la fecha enviada por el cliente
-      java.time.LocalDate clientDate = java.time.LocalDate.parse(currentDate);
-      
-      // Obtener la fecha del servidor
-      java.time.LocalDate serverDate = java.time.LocalDate.now();
-      
-      // Devolver información sobre las tareas reseteadas y las fechas
-      return ResponseEntity.ok(Map.of(
-          "serverDate", serverDate.toString(),
-          "clientDate", clientDate.toString(),
-          "tasksReset", taskService.checkAndResetDailyTasksForUser(userId, clientDate)
-      ));
-    } catch (Exception e) {
-      return ResponseEntity.badRequest().body("Error al procesar la fecha: " + e.getMessage());
-    }
+    // Parsear la fecha enviada por el cliente (si no es valida responde ApiExceptionHandler)
+    java.time.LocalDate clientDate = java.time.LocalDate.parse(currentDate);
+
+    // Obtener la fecha del servidor
+    java.time.LocalDate serverDate = java.time.LocalDate.now();
+
+    // Devolver información sobre las tareas reseteadas y las fechas
+    return ResponseEntity.ok(Map.of(
+        "serverDate", serverDate.toString(),
+        "clientDate", clientDate.toString(),
+        "tasksReset", taskService.checkAndResetDailyTasksForUser(userId, clientDate)
+    ));
   }
 
   @PostMapping("/reset-daily")
@@ -147,6 +179,31 @@ public class TaskController {
     return ResponseEntity.ok("Reset " + count + " daily tasks");
   }
 
+  /**
+   * ETag de las tareas de un usuario (o de todas si userId es null). Incluye la fecha porque en
+   * modo de completado derivado el estado de las tareas diarias depende de ella.
+   */
+  private String tasksETag(Long userId, java.time.LocalDate date) {
+    java.time.LocalDate day = date != null ? date : java.time.LocalDate.now();
+    return changeVersions.etag(userId, day.toString());
+  }
+
+  /**
+   * Parsea la fecha enviada por el cliente (AAAA-MM-DD). Devuelve null si no se envia o no es
+   * valida, en cuyo caso el servicio usara la fecha del servidor.
+   */
+  private java.time.LocalDate parseClientDate(String date) {
+    if (date == null || date.isEmpty()) {
+      return null;
+    }
+    try {
+      return java.time.LocalDate.parse(date);
+    } catch (Exception e) {
+      // Ignorar errores de parseo de fecha
+      return null;
+    }
+  }
+
   @DeleteMapping("/{taskId}")
   public ResponseEntity<?> deleteTask(@PathVariable Long taskId, @RequestParam boolean isAdmin) {
     if (taskService.deleteTask(taskId, isAdmin)) {
@@ -1,14 +1,23 @@
 package com.marcosroyo.backend.controller;
 
+import com.marcosroyo.backend.dto.ApiError;
 import com.marcosroyo.backend.dto.LoginRequest;
 import com.marcosroyo.backend.dto.PointsRequest;
 import com.marcosroyo.backend.dto.UserDto;
+import com.marcosroyo.backend.dto.UserSummaryDto;
 import com.marcosroyo.backend.model.User;
+import com.marcosroyo.backend.service.UserChangeVersions;
+import com.marcosroyo.backend.service.UserEventStream;
 import com.marcosroyo.backend.service.UserService;
+import com.marcosroyo.backend.service.UserSummaryService;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -20,25 +29,76 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/users")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {PageResponses.NEXT_CURSOR_HEADER, HttpHeaders.ETAG})
 public class UserController {
 
   @Autowired
   private UserService userService;
 
+  @Autowired
+  private UserSummaryService userSummaryService;
+
+  @Autowired
+  private UserChangeVersions changeVersions;
+
+  @Autowired
+  private UserEventStream userEvents;
+
   @GetMapping
-  public ResponseEntity<List<UserDto>> getAllUsers() {
+  public ResponseEntity<List<UserDto>> getAllUsers(
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit,
+      WebRequest request) {
+    if (request.checkNotModified(changeVersions.etag(null, null))) {
+      return null;
+    }
+    if (PageResponses.isPaged(after, limit)) {
+      return PageResponses.of(userService.getUsersPage(after, limit));
+    }
     return ResponseEntity.ok(userService.getAllUsers());
   }
 
   @GetMapping("/{id}")
-  public ResponseEntity<Optional<UserDto>> getUserById(@PathVariable Long id) {
+  public ResponseEntity<Optional<UserDto>> getUserById(@PathVariable Long id,
+      WebRequest request) {
+    if (request.checkNotModified(changeVersions.etag(id, null))) {
+      return null;
+    }
     return ResponseEntity.ok(userService.getUserById(id));
   }
 
+  @GetMapping("/{id}/summary")
+  public ResponseEntity<UserSummaryDto> getUserSummary(@PathVariable Long id,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+      LocalDate currentDate,
+      WebRequest request) {
+    LocalDate day = currentDate != null ? currentDate : LocalDate.now();
+    if (request.checkNotModified(changeVersions.etag(id, day.toString()))) {
+      return null;
+    }
+    return userSummaryService.getSummary(id, currentDate)
+        .map(ResponseEntity::ok)
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
+  /**
+   * Canal de eventos del usuario (tareas creadas, completadas o borradas, recompensas canjeadas y
+   * cambios de puntos). Un administrador recibe los eventos de todos los usuarios.
+   */
+  @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public ResponseEntity<SseEmitter> getUserEvents(@PathVariable Long id,
+      @RequestParam(required = false, defaultValue = "false") boolean isAdmin) {
+    if (userService.getUserById(id).isEmpty()) {
+      return ResponseEntity.notFound().build();
+    }
+    return ResponseEntity.ok(userEvents.subscribe(id, isAdmin));
+  }
+
   @PostMapping
   public ResponseEntity<UserDto> createUser(@RequestBody User user) {
     return ResponseEntity.ok(userService.createUser(user));
@@ -58,60 +118,41 @@ public class UserController {
 
   @PutMapping("{id}")
   public ResponseEntity<?> updateUser(@PathVariable Long id, @RequestBody User user) {
-    try {
-      UserDto updated = userService.updateUser(id, user);
-      if (updated != null) {
-        return ResponseEntity.ok(updated);
-      } else {
-        return ResponseEntity.notFound().build();
-      }
-    } catch (IllegalArgumentException e) {
-      return ResponseEntity.badRequest().body(e.getMessage());
-    } catch (Exception e) {
-      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-          .body("Error al actualizar el usuario: " + e.getMessage());
+    UserDto updated = userService.updateUser(id, user);
+    if (updated != null) {
+      return ResponseEntity.ok(updated);
+    } else {
+      return ResponseEntity.notFound().build();
     }
   }
 
   @PostMapping("/{id}/add-points")
   public ResponseEntity<?> addPoints(@PathVariable Long id,
       @RequestBody PointsRequest pointsRequest) {
-    try {
-      if (pointsRequest.points <= 0) {
-        return ResponseEntity.badRequest().body("Se requiere un valor positivo para 'points'");
-      }
-
-      UserDto updated = userService.addPointsToUser(id, pointsRequest.points);
-      if (updated != null) {
-        return ResponseEntity.ok(updated);
-      } else {
-        return ResponseEntity.notFound().build();
-      }
-    } catch (Exception e) {
-      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-          .body("Error al añadir puntos: " + e.getMessage());
+    if (pointsRequest.points <= 0) {
+      return ResponseEntity.badRequest().body(ApiError.POSITIVE_POINTS);
+    }
+
+    UserDto updated = userService.addPointsToUser(id, pointsRequest.points);
+    if (updated != null) {
+      return ResponseEntity.ok(updated);
+    } else {
+      return ResponseEntity.notFound().build();
     }
   }
 
   @PostMapping("/{id}/subtract-points")
   public ResponseEntity<?> subtractPoints(@PathVariable Long id,
       @RequestBody PointsRequest pointsRequest) {
-    try {
-      if (pointsRequest.points <= 0) {
-        return ResponseEntity.badRequest().body("Se requiere un valor positivo para 'points'");
-      }
-
-      UserDto updated = userService.subtractPointsFromUser(id, pointsRequest.points);
-      if (updated != null) {
-        return ResponseEntity.ok(updated);
-      } else {
-        return ResponseEntity.notFound().build();
-      }
-    } catch (IllegalArgumentException e) {
-      return ResponseEntity.badRequest().body(e.getMessage());
-    } catch (Exception e) {
-      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-          .body("Error al restar puntos: " + e.getMessage());
+    if (pointsRequest.points <= 0) {
+      return ResponseEntity.badRequest().body(ApiError.POSITIVE_POINTS);
+    }
+
+    UserDto updated = userService.subtractPointsFromUser(id, pointsRequest.points);
+    if (updated != null) {
+      return ResponseEntity.ok(updated);
+    } else {
+      return ResponseEntity.notFound().build();
     }
   }
 
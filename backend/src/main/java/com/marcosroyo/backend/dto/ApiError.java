@@ -0,0 +1,24 @@
+package com.marcosroyo.backend.dto;
+
+/**
+ * Cuerpo de las respuestas de error de la API: {@code {"error": "..."}}. Es inmutable, asi que los
+ * errores mas frecuentes se crean una sola vez y se reutilizan en todas las respuestas.
+ */
+public class ApiError {
+
+  public static final ApiError INVALID_DATE =
+      new ApiError("Fecha no valida, se espera el formato AAAA-MM-DD");
+  public static final ApiError POSITIVE_POINTS =
+      new ApiError("Se requiere un valor positivo para 'points'");
+  public static final ApiError INTERNAL_ERROR = new ApiError("Error interno del servidor");
+
+  private final String error;
+
+  public ApiError(String error) {
+    this.error = error;
+  }
+
+  public String getError() {
+    return error;
+  }
+}
@@ -0,0 +1,61 @@
+package com.marcosroyo.backend.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class DailyResetReport {
+
+  private final List<Chunk> chunks = new ArrayList<>();
+  private int totalRows;
+  private long totalNanos;
+
+  public void addChunk(long fromId, long toId, int rows, long nanos) {
+    chunks.add(new Chunk(fromId, toId, rows, nanos));
+    totalRows += rows;
+    totalNanos += nanos;
+  }
+
+  public List<Chunk> getChunks() {
+    return Collections.unmodifiableList(chunks);
+  }
+
+  public int getTotalRows() {
+    return totalRows;
+  }
+
+  public long getTotalNanos() {
+    return totalNanos;
+  }
+
+  public static class Chunk {
+
+    private final long fromId;
+    private final long toId;
+    private final int rows;
+    private final long nanos;
+
+    public Chunk(long fromId, long toId, int rows, long nanos) {
+      this.fromId = fromId;
+      this.toId = toId;
+      this.rows = rows;
+      this.nanos = nanos;
+    }
+
+    public long getFromId() {
+      return fromId;
+    }
+
+    public long getToId() {
+      return toId;
+    }
+
+    public int getRows() {
+      return rows;
+    }
+
+    public long getNanos() {
+      return nanos;
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.marcosroyo.backend.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Pagina de resultados ordenados por id. nextCursor es el id a pasar como "after" para pedir la
+ * siguiente pagina, o null si no hay mas resultados.
+ */
+public class KeysetPage<T> {
+
+  public static final int DEFAULT_LIMIT = 50;
+  public static final int MAX_LIMIT = 500;
+
+  private final List<T> items;
+  private final Long nextCursor;
+
+  public KeysetPage(List<T> items, Long nextCursor) {
+    this.items = items;
+    this.nextCursor = nextCursor;
+  }
+
+  /**
+   * Ajusta el tamaño de pagina pedido al rango permitido.
+   */
+  public static int clampLimit(Integer limit) {
+    if (limit == null || limit <= 0) {
+      return DEFAULT_LIMIT;
+    }
+    return Math.min(limit, MAX_LIMIT);
+  }
+
+  /**
+   * Construye la pagina a partir de una consulta que pidio limit + 1 filas: si llega la fila
+   * extra hay pagina siguiente y se descarta.
+   */
+  public static <T> KeysetPage<T> of(List<T> rows, int limit, Function<T, Long> idOf) {
+    if (rows.size() <= limit) {
+      return new KeysetPage<>(rows, null);
+    }
+    List<T> items = rows.subList(0, limit);
+    return new KeysetPage<>(items, idOf.apply(items.get(limit - 1)));
+  }
+
+  public List<T> getItems() {
+    return items;
+  }
+
+  public Long getNextCursor() {
+    return nextCursor;
+  }
+}
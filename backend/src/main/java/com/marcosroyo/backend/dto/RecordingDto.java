@@ -0,0 +1,44 @@
+package com.marcosroyo.backend.dto;
+
+public class RecordingDto {
+
+  private final long id;
+  private final String name;
+  private final String state;
+  private final String startTime;
+  private final long size;
+
+  public RecordingDto(long id, String name, String state, String startTime, long size) {
+    this.id = id;
+    this.name = name;
+    this.state = state;
+    this.startTime = startTime;
+    this.size = size;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getState() {
+    return state;
+  }
+
+  /**
+   * Instante de inicio (ISO-8601), o null si aun no se ha iniciado.
+   */
+  public String getStartTime() {
+    return startTime;
+  }
+
+  /**
+   * Bytes grabados hasta ahora.
+   */
+  public long getSize() {
+    return size;
+  }
+}
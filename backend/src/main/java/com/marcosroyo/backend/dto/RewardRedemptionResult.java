@@ -0,0 +1,36 @@
+package com.marcosroyo.backend.dto;
+
+public class RewardRedemptionResult {
+
+  public enum Outcome {
+    REDEEMED,
+    ALREADY_REDEEMED,
+    INSUFFICIENT_POINTS,
+    NOT_FOUND
+  }
+
+  private final Outcome outcome;
+  private final RewardDto reward;
+  private final Integer points;
+
+  public RewardRedemptionResult(Outcome outcome, RewardDto reward, Integer points) {
+    this.outcome = outcome;
+    this.reward = reward;
+    this.points = points;
+  }
+
+  public Outcome getOutcome() {
+    return outcome;
+  }
+
+  public RewardDto getReward() {
+    return reward;
+  }
+
+  /**
+   * Saldo del usuario asignado tras el intento de canje, o null si no tiene usuario.
+   */
+  public Integer getPoints() {
+    return points;
+  }
+}
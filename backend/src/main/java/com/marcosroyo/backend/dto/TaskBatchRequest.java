@@ -0,0 +1,19 @@
+package com.marcosroyo.backend.dto;
+
+import com.marcosroyo.backend.model.Task;
+import java.util.List;
+
+public class TaskBatchRequest {
+
+  public List<Task> tasks;
+  public List<Long> assignedUserIds;
+
+  public TaskBatchRequest() {
+
+  }
+
+  public TaskBatchRequest(List<Task> tasks, List<Long> assignedUserIds) {
+    this.tasks = tasks;
+    this.assignedUserIds = assignedUserIds;
+  }
+}
@@ -0,0 +1,32 @@
+package com.marcosroyo.backend.dto;
+
+public class TaskCompletionResult {
+
+  private final TaskDto task;
+  private final boolean completedNow;
+  private final Integer points;
+
+  public TaskCompletionResult(TaskDto task, boolean completedNow, Integer points) {
+    this.task = task;
+    this.completedNow = completedNow;
+    this.points = points;
+  }
+
+  public TaskDto getTask() {
+    return task;
+  }
+
+  /**
+   * Indica si esta llamada fue la que completo la tarea (y sumo sus puntos al usuario asignado).
+   */
+  public boolean isCompletedNow() {
+    return completedNow;
+  }
+
+  /**
+   * Saldo del usuario asignado tras completar la tarea, o null si no tiene usuario.
+   */
+  public Integer getPoints() {
+    return points;
+  }
+}
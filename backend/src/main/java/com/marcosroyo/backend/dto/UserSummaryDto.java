@@ -0,0 +1,41 @@
+package com.marcosroyo.backend.dto;
+
+import java.util.List;
+
+public class UserSummaryDto {
+
+  private UserDto user;
+  private List<TaskDto> incompleteTasks;
+  private List<TaskDto> completedTasks;
+  private List<RewardDto> availableRewards;
+  private List<RewardDto> redeemedRewards;
+
+  public UserSummaryDto(UserDto user, List<TaskDto> incompleteTasks, List<TaskDto> completedTasks,
+      List<RewardDto> availableRewards, List<RewardDto> redeemedRewards) {
+    this.user = user;
+    this.incompleteTasks = incompleteTasks;
+    this.completedTasks = completedTasks;
+    this.availableRewards = availableRewards;
+    this.redeemedRewards = redeemedRewards;
+  }
+
+  public UserDto getUser() {
+    return user;
+  }
+
+  public List<TaskDto> getIncompleteTasks() {
+    return incompleteTasks;
+  }
+
+  public List<TaskDto> getCompletedTasks() {
+    return completedTasks;
+  }
+
+  public List<RewardDto> getAvailableRewards() {
+    return availableRewards;
+  }
+
+  public List<RewardDto> getRedeemedRewards() {
+    return redeemedRewards;
+  }
+}
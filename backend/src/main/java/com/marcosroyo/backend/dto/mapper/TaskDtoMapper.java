@@ -2,6 +2,7 @@ package com.marcosroyo.backend.dto.mapper;
 
 import com.marcosroyo.backend.dto.TaskDto;
 import com.marcosroyo.backend.model.Task;
+import java.time.LocalDate;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -21,4 +22,22 @@ public class TaskDtoMapper {
         userId
     );
   }
+
+  /**
+   * Igual que {@link #toDto(Task)} pero el estado completado de las tareas diarias se calcula
+   * comparando lastCompletedDate con la fecha indicada.
+   */
+  public TaskDto toDto(Task task, LocalDate today) {
+    return deriveCompletion(toDto(task), today);
+  }
+
+  /**
+   * Recalcula el estado completado de un DTO de tarea diaria para la fecha indicada.
+   */
+  public TaskDto deriveCompletion(TaskDto dto, LocalDate today) {
+    if (Boolean.TRUE.equals(dto.isDaily())) {
+      dto.setCompleted(today.equals(dto.getLastCompletedDate()));
+    }
+    return dto;
+  }
 }
@@ -0,0 +1,27 @@
+package com.marcosroyo.backend.exceptions;
+
+import com.marcosroyo.backend.dto.ApiError;
+
+/**
+ * Resultado esperado de una operacion (un recurso que no existe, una peticion no valida) que se
+ * devuelve al cliente como error. No rellena la traza de la pila: es un caso de negocio, no un
+ * fallo, y bajo muchos reintentos o peticiones automaticas recorrer la pila en cada excepcion
+ * domina el coste de la peticion. Sin traza ni supresion la excepcion es inmutable y los casos
+ * frecuentes pueden preasignarse como constantes.
+ */
+public abstract class DomainException extends RuntimeException {
+
+  private final ApiError body;
+
+  protected DomainException(String msg) {
+    super(msg, null, false, false);
+    this.body = new ApiError(msg);
+  }
+
+  /**
+   * Cuerpo de la respuesta, creado junto con la excepcion.
+   */
+  public ApiError getBody() {
+    return body;
+  }
+}
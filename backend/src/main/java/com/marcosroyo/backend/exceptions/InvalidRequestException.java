@@ -0,0 +1,12 @@
+package com.marcosroyo.backend.exceptions;
+
+/**
+ * Peticion rechazada por una regla de negocio (nombre de usuario repetido, saldo insuficiente...).
+ */
+public class InvalidRequestException extends DomainException {
+
+  public InvalidRequestException(String msg) {
+    super(msg);
+  }
+
+}
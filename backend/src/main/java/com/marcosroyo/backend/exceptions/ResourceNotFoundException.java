@@ -1,6 +1,15 @@
 package com.marcosroyo.backend.exceptions;
 
-public class ResourceNotFoundException extends RuntimeException {
+public class ResourceNotFoundException extends DomainException {
+
+  public static final ResourceNotFoundException TASK =
+      new ResourceNotFoundException("Tarea no encontrada");
+  public static final ResourceNotFoundException REWARD =
+      new ResourceNotFoundException("Recompensa no encontrada");
+  public static final ResourceNotFoundException ASSIGNED_USER =
+      new ResourceNotFoundException("Usuario asignado no encontrado");
+  public static final ResourceNotFoundException RECORDING =
+      new ResourceNotFoundException("Grabacion no encontrada");
 
   public ResourceNotFoundException(String msg) {
     super(msg);
@@ -0,0 +1,29 @@
+package com.marcosroyo.backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.marcosroyo.backend.DailyReset")
+@Label("Daily Reset")
+@Category({"Task Heroes", "Tasks"})
+@Description("Reinicio de tareas diarias, global o de un usuario")
+@StackTrace(false)
+public class DailyResetEvent extends Event {
+
+  @Label("User Id")
+  @Description("0 en el reinicio global")
+  public long userId;
+
+  @Label("Rows Updated")
+  public int rowsUpdated;
+
+  @Label("Chunks")
+  public int chunks;
+
+  @Label("SQL Statements")
+  public int statements;
+}
@@ -0,0 +1,23 @@
+package com.marcosroyo.backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.marcosroyo.backend.Login")
+@Label("Login")
+@Category({"Task Heroes", "Users"})
+@StackTrace(false)
+public class LoginEvent extends Event {
+
+  @Label("User Id")
+  public long userId;
+
+  @Label("Admin")
+  public boolean admin;
+
+  @Label("Success")
+  public boolean success;
+}
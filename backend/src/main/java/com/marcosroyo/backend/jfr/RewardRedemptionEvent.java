@@ -0,0 +1,35 @@
+package com.marcosroyo.backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.marcosroyo.backend.RewardRedemption")
+@Label("Reward Redemption")
+@Category({"Task Heroes", "Rewards"})
+@Description("Canje de una recompensa y descuento de su precio")
+@StackTrace(false)
+public class RewardRedemptionEvent extends Event {
+
+  @Label("Reward Id")
+  public long rewardId;
+
+  @Label("User Id")
+  public long userId;
+
+  @Label("Outcome")
+  public String outcome;
+
+  @Label("Price")
+  public int price;
+
+  @Label("Rows Updated")
+  public int rowsUpdated;
+
+  @Label("SQL Statements")
+  @Description("Sentencias SQL ejecutadas, o -1 fuera de una peticion")
+  public int statements;
+}
@@ -0,0 +1,36 @@
+package com.marcosroyo.backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.marcosroyo.backend.TaskCompletion")
+@Label("Task Completion")
+@Category({"Task Heroes", "Tasks"})
+@Description("Completado de una tarea y abono de sus puntos")
+@StackTrace(false)
+public class TaskCompletionEvent extends Event {
+
+  @Label("Task Id")
+  public long taskId;
+
+  @Label("User Id")
+  public long userId;
+
+  @Label("Completed Now")
+  @Description("false si la tarea ya estaba completada para esa fecha")
+  public boolean completedNow;
+
+  @Label("Points Awarded")
+  public int pointsAwarded;
+
+  @Label("Rows Updated")
+  public int rowsUpdated;
+
+  @Label("SQL Statements")
+  @Description("Sentencias SQL ejecutadas, o -1 fuera de una peticion")
+  public int statements;
+}
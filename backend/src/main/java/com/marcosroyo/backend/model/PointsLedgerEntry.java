@@ -0,0 +1,79 @@
+package com.marcosroyo.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * Movimiento de puntos de un usuario. El libro solo admite inserciones: la suma de los
+ * movimientos de un usuario debe coincidir con users.points.
+ */
+@Entity
+@Table(name = "points_ledger", indexes = {
+    @Index(name = "idx_points_ledger_user_id", columnList = "user_id, id")
+})
+public class PointsLedgerEntry {
+
+  public enum Reason {
+    OPENING_BALANCE,
+    TASK_COMPLETED,
+    REWARD_REDEEMED,
+    MANUAL_ADJUSTMENT
+  }
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "user_id", nullable = false)
+  private Long userId;
+
+  private int delta;
+
+  @Enumerated(EnumType.STRING)
+  @JdbcTypeCode(SqlTypes.VARCHAR)
+  @Column(length = 32, nullable = false)
+  private Reason reason;
+
+  @Column(name = "reference_id")
+  private Long referenceId;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+
+  public PointsLedgerEntry() {
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public Long getUserId() {
+    return userId;
+  }
+
+  public int getDelta() {
+    return delta;
+  }
+
+  public Reason getReason() {
+    return reason;
+  }
+
+  public Long getReferenceId() {
+    return referenceId;
+  }
+
+  public LocalDateTime getCreatedAt() {
+    return createdAt;
+  }
+}
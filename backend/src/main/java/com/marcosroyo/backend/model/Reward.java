@@ -1,16 +1,28 @@
 package com.marcosroyo.backend.model;
 
+import com.marcosroyo.backend.config.SecondLevelCacheConfig;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
-@Table(name = "rewards")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.REWARDS)
+@Table(name = "rewards", indexes = {
+    @Index(name = "idx_rewards_user_id_id", columnList = "user_id, id"),
+    @Index(name = "idx_rewards_is_redeemed_id", columnList = "is_redeemed, id"),
+    @Index(name = "idx_rewards_user_id_is_redeemed_id", columnList = "user_id, is_redeemed, id")
+})
 public class Reward {
 
   @Id
@@ -24,7 +36,7 @@ public class Reward {
   @Column(name = "is_redeemed")
   private boolean isRedeemed = false;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "user_id")
   private User assignedTo;
 
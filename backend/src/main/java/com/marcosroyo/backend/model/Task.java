@@ -2,15 +2,21 @@ package com.marcosroyo.backend.model;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+    @Index(name = "idx_tasks_user_id_id", columnList = "user_id, id"),
+    @Index(name = "idx_tasks_is_completed_id", columnList = "is_completed, id"),
+    @Index(name = "idx_tasks_user_id_is_completed_id", columnList = "user_id, is_completed, id")
+})
 public class Task {
 
   @Id
@@ -32,7 +38,7 @@ public class Task {
   @Column(name = "reward_points")
   private int rewardPoints;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "user_id")
   private User assignedTo;
 
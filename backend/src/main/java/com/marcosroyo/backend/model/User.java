@@ -1,5 +1,7 @@
 package com.marcosroyo.backend.model;
 
+import com.marcosroyo.backend.config.SecondLevelCacheConfig;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -7,10 +9,14 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.USERS)
 @Table(name = "users")
 public class User {
 
@@ -26,6 +32,8 @@ public class User {
   @Column(name = "is_admin")
   private boolean admin = false;
 
+  // Solo PointsService modifica el saldo, junto con su movimiento en points_ledger
+  @Column(updatable = false)
   private int points = 0;
 
   @OneToMany(mappedBy = "assignedTo")
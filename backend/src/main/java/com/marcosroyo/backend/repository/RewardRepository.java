@@ -1,18 +1,80 @@
 package com.marcosroyo.backend.repository;
 
+import com.marcosroyo.backend.config.SecondLevelCacheConfig;
+import com.marcosroyo.backend.dto.RewardDto;
 import com.marcosroyo.backend.model.Reward;
 import java.util.List;
+import java.util.Optional;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 public interface RewardRepository extends JpaRepository<Reward, Long> {
 
-  List<Reward> findByAssignedToIdAndIsRedeemedFalse(Long userId);
+  // Las consultas por usuario filtran por r.assignedTo.id en JPQL: derivadas del nombre, Spring
+  // Data las resuelve con un LEFT JOIN a users y el filtro no puede usar los indices de user_id
+  @Query("SELECT r FROM Reward r WHERE r.assignedTo.id = :userId AND r.isRedeemed = false")
+  List<Reward> findByAssignedToIdAndIsRedeemedFalse(@Param("userId") Long userId);
 
-  List<Reward> findByAssignedToIdAndIsRedeemedTrue(Long userId);
+  @Query("SELECT r FROM Reward r WHERE r.assignedTo.id = :userId AND r.isRedeemed = true")
+  List<Reward> findByAssignedToIdAndIsRedeemedTrue(@Param("userId") Long userId);
 
   List<Reward> findByIsRedeemedFalse();
 
   List<Reward> findByIsRedeemedTrue();
 
-  List<Reward> findByAssignedToId(Long userId);
+  @Query("SELECT r FROM Reward r WHERE r.assignedTo.id = :userId")
+  List<Reward> findByAssignedToId(@Param("userId") Long userId);
+
+  // Las consultas por id y por usuario se guardan en la cache de segundo nivel; las escrituras
+  // con JdbcTemplate las invalida SecondLevelCacheEvictor
+  String CACHE_REGION = SecondLevelCacheConfig.REWARD_QUERIES;
+
+  // Proyecciones directas a RewardDto: solo leen las columnas de rewards (user_id incluido), sin
+  // cargar la entidad ni el usuario asignado
+  String REWARD_DTO = "SELECT new com.marcosroyo.backend.dto.RewardDto(r.id, r.title,"
+      + " r.description, r.price, r.isRedeemed, r.assignedTo.id) FROM Reward r";
+
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CACHE_REGION)})
+  @Query(REWARD_DTO + " WHERE r.id = :id")
+  Optional<RewardDto> findDtoById(@Param("id") Long id);
+
+  @Query(REWARD_DTO)
+  List<RewardDto> findAllDtos();
+
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CACHE_REGION)})
+  @Query(REWARD_DTO + " WHERE r.assignedTo.id = :userId")
+  List<RewardDto> findDtosByAssignedToId(@Param("userId") Long userId);
+
+  @Query(REWARD_DTO + " WHERE r.isRedeemed = :redeemed")
+  List<RewardDto> findDtosByIsRedeemed(@Param("redeemed") boolean redeemed);
+
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CACHE_REGION)})
+  @Query(REWARD_DTO + " WHERE r.assignedTo.id = :userId AND r.isRedeemed = :redeemed")
+  List<RewardDto> findDtosByAssignedToIdAndIsRedeemed(@Param("userId") Long userId,
+      @Param("redeemed") boolean redeemed);
+
+  // Paginacion por cursor: filas con id mayor que "after" en orden de id
+  @Query(REWARD_DTO + " WHERE r.id > :after ORDER BY r.id")
+  List<RewardDto> findDtosAfter(@Param("after") Long after, Limit limit);
+
+  @Query(REWARD_DTO + " WHERE r.assignedTo.id = :userId AND r.id > :after ORDER BY r.id")
+  List<RewardDto> findDtosByAssignedToIdAfter(@Param("userId") Long userId,
+      @Param("after") Long after, Limit limit);
+
+  @Query(REWARD_DTO + " WHERE r.isRedeemed = :redeemed AND r.id > :after ORDER BY r.id")
+  List<RewardDto> findDtosByIsRedeemedAfter(@Param("redeemed") boolean redeemed,
+      @Param("after") Long after, Limit limit);
+
+  @Query(REWARD_DTO + " WHERE r.assignedTo.id = :userId AND r.isRedeemed = :redeemed"
+      + " AND r.id > :after ORDER BY r.id")
+  List<RewardDto> findDtosByAssignedToIdAndIsRedeemedAfter(@Param("userId") Long userId,
+      @Param("redeemed") boolean redeemed, @Param("after") Long after, Limit limit);
 }
@@ -1,8 +1,18 @@
 package com.marcosroyo.backend.repository;
 
+import com.marcosroyo.backend.config.SecondLevelCacheConfig;
+import com.marcosroyo.backend.dto.TaskDto;
 import com.marcosroyo.backend.model.Task;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 public interface TaskRepository extends JpaRepository<Task, Long> {
 
@@ -10,19 +20,119 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
 
   List<Task> findByIsCompletedTrue();
 
-  List<Task> findByAssignedToId(Long userId);
+  // Las consultas por usuario filtran por t.assignedTo.id en JPQL: derivadas del nombre, Spring
+  // Data las resuelve con un LEFT JOIN a users y el filtro no puede usar los indices de user_id
+  @Query("SELECT t FROM Task t WHERE t.assignedTo.id = :userId")
+  List<Task> findByAssignedToId(@Param("userId") Long userId);
 
-  List<Task> findByAssignedToIdAndIsCompletedFalse(Long userId);
+  @Query("SELECT t FROM Task t WHERE t.assignedTo.id = :userId AND t.isCompleted = false")
+  List<Task> findByAssignedToIdAndIsCompletedFalse(@Param("userId") Long userId);
   
-  List<Task> findByAssignedToIdAndIsCompletedTrue(Long userId);
+  @Query("SELECT t FROM Task t WHERE t.assignedTo.id = :userId AND t.isCompleted = true")
+  List<Task> findByAssignedToIdAndIsCompletedTrue(@Param("userId") Long userId);
   
   List<Task> findByIsDailyTrueAndIsCompletedTrue();
   
-  List<Task> findByAssignedToIdAndIsDailyTrueAndIsCompletedTrue(Long userId);
+  @Query("SELECT t FROM Task t WHERE t.assignedTo.id = :userId AND t.isDaily = true"
+      + " AND t.isCompleted = true")
+  List<Task> findByAssignedToIdAndIsDailyTrueAndIsCompletedTrue(@Param("userId") Long userId);
 
   // New helper methods to debug task status
   List<Task> findByIdAndIsDailyTrue(Long taskId);
   
   List<Task> findByIdAndIsCompletedTrue(Long taskId);
 
+  // Las consultas por id y por usuario se guardan en la cache de segundo nivel; las escrituras
+  // con JdbcTemplate las invalida SecondLevelCacheEvictor
+  String CACHE_REGION = SecondLevelCacheConfig.TASK_QUERIES;
+
+  // Proyecciones directas a TaskDto: solo leen las columnas de tasks (user_id incluido), sin
+  // cargar la entidad ni el usuario asignado
+  String TASK_DTO = "SELECT new com.marcosroyo.backend.dto.TaskDto(t.id, t.title,"
+      + " t.description, t.isCompleted, t.isDaily, t.lastCompletedDate, t.rewardPoints,"
+      + " t.assignedTo.id) FROM Task t";
+
+  // Consultas para el modo de completado derivado: una tarea diaria esta completada solo si
+  // lastCompletedDate coincide con la fecha indicada
+  String COMPLETED_ON = "((t.isDaily = true AND t.lastCompletedDate = :today)"
+      + " OR ((t.isDaily IS NULL OR t.isDaily = false) AND t.isCompleted = true))";
+
+  String INCOMPLETE_ON = "((t.isDaily = true"
+      + " AND (t.lastCompletedDate IS NULL OR t.lastCompletedDate <> :today))"
+      + " OR ((t.isDaily IS NULL OR t.isDaily = false) AND t.isCompleted = false))";
+
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CACHE_REGION)})
+  @Query(TASK_DTO + " WHERE t.id = :id")
+  Optional<TaskDto> findDtoById(@Param("id") Long id);
+
+  @Query(TASK_DTO)
+  List<TaskDto> findAllDtos();
+
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CACHE_REGION)})
+  @Query(TASK_DTO + " WHERE t.assignedTo.id = :userId")
+  List<TaskDto> findDtosByAssignedToId(@Param("userId") Long userId);
+
+  @Query(TASK_DTO + " WHERE t.isCompleted = :completed")
+  List<TaskDto> findDtosByIsCompleted(@Param("completed") boolean completed);
+
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CACHE_REGION)})
+  @Query(TASK_DTO + " WHERE t.assignedTo.id = :userId AND t.isCompleted = :completed")
+  List<TaskDto> findDtosByAssignedToIdAndIsCompleted(@Param("userId") Long userId,
+      @Param("completed") boolean completed);
+
+  @Query(TASK_DTO + " WHERE " + COMPLETED_ON)
+  List<TaskDto> findDtosCompletedOn(@Param("today") LocalDate today);
+
+  @Query(TASK_DTO + " WHERE " + INCOMPLETE_ON)
+  List<TaskDto> findDtosIncompleteOn(@Param("today") LocalDate today);
+
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CACHE_REGION)})
+  @Query(TASK_DTO + " WHERE t.assignedTo.id = :userId AND " + COMPLETED_ON)
+  List<TaskDto> findDtosByAssignedToIdCompletedOn(@Param("userId") Long userId,
+      @Param("today") LocalDate today);
+
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CACHE_REGION)})
+  @Query(TASK_DTO + " WHERE t.assignedTo.id = :userId AND " + INCOMPLETE_ON)
+  List<TaskDto> findDtosByAssignedToIdIncompleteOn(@Param("userId") Long userId,
+      @Param("today") LocalDate today);
+
+  // Paginacion por cursor: filas con id mayor que "after" en orden de id
+  @Query(TASK_DTO + " WHERE t.id > :after ORDER BY t.id")
+  List<TaskDto> findDtosAfter(@Param("after") Long after, Limit limit);
+
+  @Query(TASK_DTO + " WHERE t.assignedTo.id = :userId AND t.id > :after ORDER BY t.id")
+  List<TaskDto> findDtosByAssignedToIdAfter(@Param("userId") Long userId,
+      @Param("after") Long after, Limit limit);
+
+  @Query(TASK_DTO + " WHERE t.isCompleted = :completed AND t.id > :after ORDER BY t.id")
+  List<TaskDto> findDtosByIsCompletedAfter(@Param("completed") boolean completed,
+      @Param("after") Long after, Limit limit);
+
+  @Query(TASK_DTO + " WHERE t.assignedTo.id = :userId AND t.isCompleted = :completed"
+      + " AND t.id > :after ORDER BY t.id")
+  List<TaskDto> findDtosByAssignedToIdAndIsCompletedAfter(@Param("userId") Long userId,
+      @Param("completed") boolean completed, @Param("after") Long after, Limit limit);
+
+  @Query(TASK_DTO + " WHERE t.id > :after AND " + COMPLETED_ON + " ORDER BY t.id")
+  List<TaskDto> findDtosCompletedOnAfter(@Param("today") LocalDate today,
+      @Param("after") Long after, Limit limit);
+
+  @Query(TASK_DTO + " WHERE t.id > :after AND " + INCOMPLETE_ON + " ORDER BY t.id")
+  List<TaskDto> findDtosIncompleteOnAfter(@Param("today") LocalDate today,
+      @Param("after") Long after, Limit limit);
+
+  @Query(TASK_DTO + " WHERE t.assignedTo.id = :userId AND t.id > :after AND "
+      + COMPLETED_ON + " ORDER BY t.id")
+  List<TaskDto> findDtosByAssignedToIdCompletedOnAfter(@Param("userId") Long userId,
+      @Param("today") LocalDate today, @Param("after") Long after, Limit limit);
+
+  @Query(TASK_DTO + " WHERE t.assignedTo.id = :userId AND t.id > :after AND "
+      + INCOMPLETE_ON + " ORDER BY t.id")
+  List<TaskDto> findDtosByAssignedToIdIncompleteOnAfter(@Param("userId") Long userId,
+      @Param("today") LocalDate today, @Param("after") Long after, Limit limit);
 }
@@ -1,10 +1,37 @@
 package com.marcosroyo.backend.repository;
 
+import com.marcosroyo.backend.config.SecondLevelCacheConfig;
+import com.marcosroyo.backend.dto.UserDto;
 import com.marcosroyo.backend.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    // Proyecciones directas a UserDto, sin cargar la entidad ni sus colecciones
+    String USER_DTO = "SELECT new com.marcosroyo.backend.dto.UserDto(u.id, u.username, u.admin,"
+        + " u.points) FROM User u";
+
+    // Saldo del usuario tras completar tareas o canjear recompensas: se guarda en la cache de
+    // segundo nivel y PointsService la invalida en cada cambio de puntos
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION,
+            value = SecondLevelCacheConfig.USER_QUERIES)})
+    @Query(USER_DTO + " WHERE u.id = :id")
+    Optional<UserDto> findDtoById(@Param("id") Long id);
+
+    @Query(USER_DTO)
+    List<UserDto> findAllDtos();
+
+    @Query(USER_DTO + " WHERE u.id > :after ORDER BY u.id")
+    List<UserDto> findDtosAfter(@Param("after") Long after, Limit limit);
 }
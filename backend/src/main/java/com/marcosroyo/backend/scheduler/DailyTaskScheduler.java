@@ -1,6 +1,12 @@
 package com.marcosroyo.backend.scheduler;
 
+import com.marcosroyo.backend.dto.DailyResetReport;
 import com.marcosroyo.backend.service.TaskService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,14 +21,46 @@ public class DailyTaskScheduler {
     @Autowired
     private TaskService taskService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicLong lastResetRows = new AtomicLong();
+    private final AtomicLong lastResetNanos = new AtomicLong();
+
+    /**
+     * Filas y duracion del ultimo reinicio programado.
+     */
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("tasks.daily.reset.rows", lastResetRows, AtomicLong::get)
+            .description("Tareas diarias reiniciadas en el ultimo reinicio programado")
+            .register(meterRegistry);
+        Gauge.builder("tasks.daily.reset.duration", lastResetNanos,
+                nanos -> nanos.get() / (double) TimeUnit.SECONDS.toNanos(1))
+            .description("Duracion del ultimo reinicio programado")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
     /**
      * Resetea todas las tareas diarias a incompletas a la medianoche todos los días.
      * La expresión cron "0 0 0 * * ?" significa "a las 00:00:00am todos los días".
      */
     @Scheduled(cron = "0 0 0 * * ?")
     public void resetDailyTasks() {
+        if (taskService.isDerivedDailyCompletion()) {
+            logger.debug("Daily completion is derived from lastCompletedDate, skipping reset");
+            return;
+        }
         logger.info("Running scheduled daily task reset");
-        int resetCount = taskService.resetDailyTasks();
-        logger.info("Reset {} daily tasks", resetCount);
+        DailyResetReport report = taskService.resetDailyTasksInChunks();
+        lastResetRows.set(report.getTotalRows());
+        lastResetNanos.set(report.getTotalNanos());
+        for (DailyResetReport.Chunk chunk : report.getChunks()) {
+            logger.debug("Reset chunk [{}, {}): {} rows in {} ms", chunk.getFromId(),
+                chunk.getToId(), chunk.getRows(), TimeUnit.NANOSECONDS.toMillis(chunk.getNanos()));
+        }
+        logger.info("Reset {} daily tasks in {} chunks ({} ms)", report.getTotalRows(),
+            report.getChunks().size(), TimeUnit.NANOSECONDS.toMillis(report.getTotalNanos()));
     }
 } 
\ No newline at end of file
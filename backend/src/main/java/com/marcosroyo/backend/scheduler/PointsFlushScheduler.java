@@ -0,0 +1,34 @@
+package com.marcosroyo.backend.scheduler;
+
+import com.marcosroyo.backend.service.PointsWriteBehind;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PointsFlushScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PointsFlushScheduler.class);
+
+    @Autowired
+    private PointsWriteBehind writeBehind;
+
+    /**
+     * Escribe por lotes los abonos acumulados por la escritura diferida de puntos. Si falla, los
+     * segmentos del diario se quedan pendientes y se reintentan en la siguiente ejecucion.
+     */
+    @Scheduled(fixedDelayString = "${points.write-behind.flush-ms:500}")
+    public void flushPendingPoints() {
+        if (!writeBehind.isEnabled() || !writeBehind.hasPending()) {
+            return;
+        }
+        try {
+            int applied = writeBehind.flush();
+            logger.debug("Flushed {} pending point credits", applied);
+        } catch (RuntimeException e) {
+            logger.warn("Could not flush pending point credits, will retry", e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.marcosroyo.backend.scheduler;
+
+import com.marcosroyo.backend.service.PointsService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PointsReconciliationJob implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(PointsReconciliationJob.class);
+
+    private static final String MISMATCHES_IN_RANGE =
+        "SELECT u.id, u.points, COALESCE(SUM(l.delta), 0) AS ledger "
+            + "FROM users u LEFT JOIN points_ledger l ON l.user_id = u.id "
+            + "WHERE u.id >= ? AND u.id < ? "
+            + "GROUP BY u.id, u.points "
+            + "HAVING u.points <> COALESCE(SUM(l.delta), 0)";
+
+    @Autowired
+    private PointsService pointsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${points.reconciliation.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${points.reconciliation.parallelism:4}")
+    private int parallelism;
+
+    /**
+     * Antes de aceptar peticiones se registran los saldos previos al libro, de forma que
+     * cualquier movimiento posterior ya parte de un saldo de apertura.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        int seeded = pointsService.seedOpeningBalances();
+        if (seeded > 0) {
+            logger.info("Seeded opening balances for {} users", seeded);
+        }
+    }
+
+    /**
+     * Compara el saldo de cada usuario con la suma de su libro de puntos, por bloques de ids en
+     * paralelo. Solo informa de las diferencias, no las corrige.
+     *
+     * @return Numero de usuarios cuyo saldo no cuadra
+     */
+    @Scheduled(cron = "${points.reconciliation.cron:0 30 3 * * ?}")
+    public int reconcile() throws Exception {
+        Map<String, Object> bounds = jdbcTemplate.queryForMap(
+            "SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM users");
+        Number minId = (Number) bounds.get("min_id");
+        Number maxId = (Number) bounds.get("max_id");
+        if (minId == null || maxId == null) {
+            return 0;
+        }
+
+        long start = System.currentTimeMillis();
+        int mismatches = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<Integer>> chunks = new ArrayList<>();
+            for (long from = minId.longValue(); from <= maxId.longValue(); from += chunkSize) {
+                long chunkFrom = from;
+                long chunkTo = from + chunkSize;
+                chunks.add(executor.submit(() -> reconcileRange(chunkFrom, chunkTo)));
+            }
+            for (Future<Integer> chunk : chunks) {
+                mismatches += chunk.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        logger.info("Points reconciliation finished: {} mismatches in {} ms", mismatches,
+            System.currentTimeMillis() - start);
+        return mismatches;
+    }
+
+    private int reconcileRange(long fromId, long toId) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(MISMATCHES_IN_RANGE, fromId,
+            toId);
+        for (Map<String, Object> row : rows) {
+            logger.warn("Points mismatch for user {}: balance {} but ledger {}", row.get("id"),
+                row.get("points"), row.get("ledger"));
+        }
+        return rows.size();
+    }
+}
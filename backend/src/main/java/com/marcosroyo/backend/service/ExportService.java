@@ -0,0 +1,266 @@
+package com.marcosroyo.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Exportacion completa de tareas, recompensas y libro de puntos en NDJSON o CSV. Las filas se
+ * leen con un cursor JDBC (export.fetch-size filas por viaje) y se escriben en la respuesta segun
+ * llegan, sin construir listas ni entidades, asi que la memoria no depende del numero de filas.
+ *
+ * <p>MySQL Connector/J lee el resultado entero salvo que el fetch size sea Integer.MIN_VALUE,
+ * con el que transmite fila a fila; ese es el valor configurado en produccion. Mientras se
+ * transmite, el servidor corta la consulta si el cliente tarda mas de net_write_timeout segundos
+ * en leer (60 por defecto), y aqui el ritmo lo marca la descarga HTTP. Connector/J sube ese
+ * limite a netTimeoutForStreamingResults en cada resultado transmitido; la URL de produccion lo
+ * fija explicitamente.
+ *
+ * <p>Con tasks.daily.derived-completion la columna completed de las tareas diarias se calcula en
+ * la consulta con lastCompletedDate y la fecha de hoy, como en el API: is_completed se queda a 1.
+ */
+@Service
+public class ExportService {
+
+  public enum Dataset {
+    TASKS("SELECT id, title, description, is_completed, is_daily, last_completed_date, "
+        + "reward_points, user_id FROM tasks",
+        "SELECT id, title, description, CASE WHEN is_daily = TRUE "
+            + "THEN COALESCE(last_completed_date = ?, FALSE) ELSE is_completed END, is_daily, "
+            + "last_completed_date, reward_points, user_id FROM tasks",
+        List.of("id", "title", "description", "completed", "daily", "lastCompletedDate",
+            "rewardPoints", "assignedUserId"),
+        Set.of("completed", "daily")),
+    REWARDS("SELECT id, title, description, price, is_redeemed, user_id FROM rewards", null,
+        List.of("id", "title", "description", "price", "redeemed", "userId"),
+        Set.of("redeemed")),
+    POINTS("SELECT id, user_id, delta, reason, reference_id, created_at FROM points_ledger", null,
+        List.of("id", "userId", "delta", "reason", "referenceId", "createdAt"), Set.of());
+
+    private final String select;
+    // Consulta con la fecha de hoy como primer parametro si la completitud diaria es derivada
+    private final String derivedSelect;
+    private final List<String> columns;
+    // Booleanas: MySQL devuelve 0/1 cuando la columna sale de una expresion
+    private final boolean[] flags;
+
+    Dataset(String select, String derivedSelect, List<String> columns, Set<String> flags) {
+      this.select = select;
+      this.derivedSelect = derivedSelect;
+      this.columns = columns;
+      this.flags = new boolean[columns.size()];
+      for (int i = 0; i < columns.size(); i++) {
+        this.flags[i] = flags.contains(columns.get(i));
+      }
+    }
+  }
+
+  public enum Format {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    Format(String contentType, String extension) {
+      this.contentType = contentType;
+      this.extension = extension;
+    }
+
+    public String getContentType() {
+      return contentType;
+    }
+
+    public String getExtension() {
+      return extension;
+    }
+  }
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private PointsService pointsService;
+
+  @Autowired
+  private TaskService taskService;
+
+  @Value("${export.fetch-size:1000}")
+  private int fetchSize;
+
+  // Plantilla propia para no cambiar el fetch size del resto de consultas
+  private JdbcTemplate cursorTemplate;
+
+  @PostConstruct
+  public void init() {
+    cursorTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+    cursorTemplate.setFetchSize(fetchSize);
+  }
+
+  /**
+   * Escribe todas las filas del conjunto, ordenadas por id, en el flujo indicado.
+   *
+   * @param userId Si no es null, solo las filas de ese usuario
+   * @return Numero de filas escritas
+   */
+  public long export(Dataset dataset, Format format, Long userId, OutputStream out)
+      throws IOException {
+    if (dataset == Dataset.POINTS) {
+      // El libro solo incluye los abonos diferidos una vez volcados
+      pointsService.settlePending();
+    }
+    List<Object> args = new ArrayList<>();
+    String select = dataset.select;
+    if (dataset.derivedSelect != null && taskService.isDerivedDailyCompletion()) {
+      select = dataset.derivedSelect;
+      args.add(LocalDate.now());
+    }
+    if (userId != null) {
+      args.add(userId);
+    }
+    String sql = select + (userId != null ? " WHERE user_id = ?" : "") + " ORDER BY id";
+    RowWriter writer = format == Format.CSV
+        ? new CsvRowWriter(out, dataset)
+        : new NdjsonRowWriter(objectMapper, out, dataset);
+    long[] rows = {0};
+    try {
+      cursorTemplate.query(sql, rs -> {
+        try {
+          writer.write(rs);
+          rows[0]++;
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }, args.toArray());
+    } catch (UncheckedIOException e) {
+      // Normalmente el cliente ha cortado la descarga
+      throw e.getCause();
+    }
+    writer.finish();
+    return rows[0];
+  }
+
+  /**
+   * Valor JDBC en un tipo que se escribe igual en JSON y CSV: fechas en ISO-8601, booleanos como
+   * true/false y numeros tal cual.
+   */
+  private static Object value(ResultSet rs, Dataset dataset, int column) throws SQLException {
+    if (dataset.flags[column - 1]) {
+      boolean flag = rs.getBoolean(column);
+      return rs.wasNull() ? null : flag;
+    }
+    Object value = rs.getObject(column);
+    if (value instanceof Date date) {
+      return date.toLocalDate().toString();
+    }
+    if (value instanceof Timestamp timestamp) {
+      return timestamp.toLocalDateTime().toString();
+    }
+    if (value instanceof Temporal temporal) {
+      return temporal.toString();
+    }
+    return value;
+  }
+
+  private interface RowWriter {
+
+    void write(ResultSet rs) throws SQLException, IOException;
+
+    void finish() throws IOException;
+  }
+
+  private static class NdjsonRowWriter implements RowWriter {
+
+    private final JsonGenerator generator;
+    private final Dataset dataset;
+
+    NdjsonRowWriter(ObjectMapper objectMapper, OutputStream out, Dataset dataset)
+        throws IOException {
+      this.generator = objectMapper.getFactory().createGenerator(out)
+          .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      // Sin el separador por defecto (un espacio) cada linea empezaria por ' '
+      this.generator.setRootValueSeparator(null);
+      this.dataset = dataset;
+    }
+
+    @Override
+    public void write(ResultSet rs) throws SQLException, IOException {
+      generator.writeStartObject();
+      for (int i = 0; i < dataset.columns.size(); i++) {
+        generator.writeFieldName(dataset.columns.get(i));
+        generator.writeObject(value(rs, dataset, i + 1));
+      }
+      generator.writeEndObject();
+      generator.writeRaw('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+      generator.flush();
+    }
+  }
+
+  private static class CsvRowWriter implements RowWriter {
+
+    private final Writer writer;
+    private final Dataset dataset;
+
+    CsvRowWriter(OutputStream out, Dataset dataset) throws IOException {
+      this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+      this.dataset = dataset;
+      writer.write(String.join(",", dataset.columns));
+      writer.write("\r\n");
+    }
+
+    @Override
+    public void write(ResultSet rs) throws SQLException, IOException {
+      for (int i = 1; i <= dataset.columns.size(); i++) {
+        if (i > 1) {
+          writer.write(',');
+        }
+        Object value = value(rs, dataset, i);
+        if (value != null) {
+          writer.write(escape(value.toString()));
+        }
+      }
+      writer.write("\r\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+      writer.flush();
+    }
+
+    // RFC 4180: entre comillas si contiene separadores, comillas o saltos de linea
+    private static String escape(String field) {
+      if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0
+          && field.indexOf('\r') < 0) {
+        return field;
+      }
+      return '"' + field.replace("\"", "\"\"") + '"';
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package com.marcosroyo.backend.service;
+
+import com.marcosroyo.backend.dto.RecordingDto;
+import com.marcosroyo.backend.exceptions.InvalidRequestException;
+import com.marcosroyo.backend.exceptions.ResourceNotFoundException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Grabaciones de JDK Flight Recorder con la configuracion "default" (la de bajo coste pensada para
+ * produccion), que incluye los eventos propios del paquete jfr. Si jfr.continuous.enabled esta
+ * activo, al arrancar se inicia una grabacion continua que conserva los ultimos minutos, de modo
+ * que tras un pico de latencia basta con volcarla. Los volcados se escriben en jfr.recordings.dir.
+ *
+ * <p>Toda grabacion tiene un tope de tamano (jfr.recording.max-size-mb) y de antiguedad
+ * (jfr.recording.default-max-age-minutes si no se indica otra), y solo puede haber
+ * jfr.recording.max-concurrent sin borrar a la vez, para que una grabacion olvidada no llene el
+ * disco.
+ */
+@Service
+public class FlightRecordingService {
+
+  private static final Logger logger = LoggerFactory.getLogger(FlightRecordingService.class);
+
+  private static final DateTimeFormatter FILE_TIMESTAMP =
+      DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+  @Value("${jfr.recordings.dir:recordings}")
+  private String recordingsDir;
+
+  @Value("${jfr.continuous.enabled:false}")
+  private boolean continuousEnabled;
+
+  @Value("${jfr.continuous.max-age-minutes:30}")
+  private long continuousMaxAgeMinutes;
+
+  @Value("${jfr.recording.max-size-mb:250}")
+  private long maxSizeMb;
+
+  @Value("${jfr.recording.default-max-age-minutes:60}")
+  private long defaultMaxAgeMinutes;
+
+  @Value("${jfr.recording.max-concurrent:3}")
+  private int maxConcurrent;
+
+  private final Map<Long, Recording> recordings = new ConcurrentHashMap<>();
+
+  @PostConstruct
+  public void init() throws IOException, ParseException {
+    requirePositive("jfr.recording.max-size-mb", maxSizeMb);
+    requirePositive("jfr.recording.default-max-age-minutes", defaultMaxAgeMinutes);
+    requirePositive("jfr.recording.max-concurrent", maxConcurrent);
+    if (continuousEnabled) {
+      RecordingDto continuous = start("continuous", continuousMaxAgeMinutes);
+      logger.info("Continuous flight recording {} started, keeping the last {} minutes",
+          continuous.getId(), continuousMaxAgeMinutes);
+    }
+  }
+
+  @PreDestroy
+  public void close() {
+    recordings.values().forEach(Recording::close);
+    recordings.clear();
+  }
+
+  public List<RecordingDto> getRecordings() {
+    return recordings.values().stream()
+        .sorted(Comparator.comparingLong(Recording::getId))
+        .map(this::toDto)
+        .toList();
+  }
+
+  /**
+   * Inicia una grabacion.
+   *
+   * @param name Nombre de la grabacion
+   * @param maxAgeMinutes Minutos que se conservan (null para jfr.recording.default-max-age-minutes)
+   */
+  public synchronized RecordingDto start(String name, Long maxAgeMinutes)
+      throws IOException, ParseException {
+    if (maxAgeMinutes != null && maxAgeMinutes <= 0) {
+      throw new InvalidRequestException("maxAgeMinutes debe ser mayor que 0");
+    }
+    if (recordings.size() >= maxConcurrent) {
+      throw new InvalidRequestException("Ya hay " + recordings.size()
+          + " grabaciones; borra alguna antes de iniciar otra");
+    }
+    Recording recording = new Recording(Configuration.getConfiguration("default"));
+    recording.setName(name != null && !name.isBlank() ? name : "recording");
+    recording.setToDisk(true);
+    recording.setMaxSize(maxSizeMb * 1024 * 1024);
+    recording.setMaxAge(Duration.ofMinutes(
+        maxAgeMinutes != null ? maxAgeMinutes : defaultMaxAgeMinutes));
+    recording.start();
+    recordings.put(recording.getId(), recording);
+    return toDto(recording);
+  }
+
+  public RecordingDto stop(long id) {
+    Recording recording = find(id);
+    if (recording.getState() == RecordingState.RUNNING) {
+      recording.stop();
+    }
+    return toDto(recording);
+  }
+
+  /**
+   * Vuelca lo grabado hasta ahora a un fichero nuevo; la grabacion sigue en su estado.
+   *
+   * @return Ruta del fichero escrito
+   */
+  public Path dump(long id) throws IOException {
+    Recording recording = find(id);
+    Path dir = Path.of(recordingsDir);
+    Files.createDirectories(dir);
+    Path file = dir.resolve(fileName(recording)).toAbsolutePath();
+    recording.dump(file);
+    logger.info("Flight recording {} dumped to {}", id, file);
+    return file;
+  }
+
+  public void delete(long id) {
+    find(id).close();
+    recordings.remove(id);
+  }
+
+  private static void requirePositive(String property, long value) {
+    if (value <= 0) {
+      throw new IllegalStateException(property + " debe ser mayor que 0 (es " + value + ")");
+    }
+  }
+
+  private Recording find(long id) {
+    Recording recording = recordings.get(id);
+    if (recording == null) {
+      throw ResourceNotFoundException.RECORDING;
+    }
+    return recording;
+  }
+
+  // El nombre lo elige el cliente; en la ruta solo se usan caracteres seguros
+  private static String fileName(Recording recording) {
+    String name = recording.getName().replaceAll("[^A-Za-z0-9_-]", "_");
+    return name + "-" + recording.getId() + "-" + LocalDateTime.now().format(FILE_TIMESTAMP)
+        + ".jfr";
+  }
+
+  private RecordingDto toDto(Recording recording) {
+    return new RecordingDto(recording.getId(), recording.getName(),
+        recording.getState().name(),
+        recording.getStartTime() != null ? recording.getStartTime().toString() : null,
+        recording.getSize());
+  }
+}
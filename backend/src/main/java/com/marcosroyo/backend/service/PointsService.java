@@ -0,0 +1,223 @@
+package com.marcosroyo.backend.service;
+
+import com.marcosroyo.backend.dto.UserDto;
+import com.marcosroyo.backend.model.PointsLedgerEntry.Reason;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Unico punto de escritura de users.points. Cada cambio es un UPDATE atomico sobre el saldo mas
+ * una insercion en points_ledger dentro de la misma transaccion, sin cargar la entidad User.
+ *
+ * <p>Con points.write-behind.enabled los abonos no se escriben al momento sino que los acumula
+ * {@link PointsWriteBehind}; los saldos que se devuelven incluyen lo pendiente y los descuentos
+ * vuelcan antes lo pendiente con {@link #settlePending()} para comprobar el saldo real.
+ */
+@Service
+public class PointsService {
+
+  static final String INSERT_LEDGER =
+      "INSERT INTO points_ledger (user_id, delta, reason, reference_id, created_at) "
+          + "VALUES (?, ?, ?, ?, ?)";
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private SecondLevelCacheEvictor cacheEvictor;
+
+  @Autowired
+  private PointsWriteBehind writeBehind;
+
+  @Autowired
+  private UserDirectory userDirectory;
+
+  private final Map<Reason, Counter> awarded = new EnumMap<>(Reason.class);
+  private final Map<Reason, Counter> spent = new EnumMap<>(Reason.class);
+
+  @PostConstruct
+  public void registerMetrics() {
+    for (Reason reason : Reason.values()) {
+      awarded.put(reason, Counter.builder("points.awarded")
+          .description("Puntos sumados a los usuarios")
+          .tag("reason", reason.name())
+          .register(meterRegistry));
+      spent.put(reason, Counter.builder("points.spent")
+          .description("Puntos descontados a los usuarios")
+          .tag("reason", reason.name())
+          .register(meterRegistry));
+    }
+  }
+
+  /**
+   * Suma puntos al usuario.
+   *
+   * @return true si el usuario existe y se actualizo su saldo
+   */
+  @Transactional
+  public boolean credit(Long userId, int points, Reason reason, Long referenceId) {
+    return credit(userId, points, reason, referenceId, null);
+  }
+
+  /**
+   * Suma los puntos de una tarea completada. Con escritura diferida la fecha de completado se
+   * anota en el diario: si el proceso cae mientras se confirma la transaccion, al arrancar se
+   * comprueba en la fila de la tarea si llego a confirmarse.
+   *
+   * @return true si el usuario existe y se actualizo su saldo
+   */
+  @Transactional
+  public boolean creditTaskCompletion(Long userId, int points, Long taskId,
+      LocalDate completedOn) {
+    return credit(userId, points, Reason.TASK_COMPLETED, taskId, completedOn);
+  }
+
+  private boolean credit(Long userId, int points, Reason reason, Long referenceId,
+      LocalDate completedOn) {
+    if (userId == null || points <= 0) {
+      return false;
+    }
+    if (writeBehind.isEnabled()) {
+      if (userDirectory.findById(userId) == null) {
+        return false;
+      }
+      writeBehind.creditAfterCommit(userId, points, reason, referenceId, completedOn);
+      countAfterCommit(awarded.get(reason), points);
+      return true;
+    }
+    int rows = jdbcTemplate.update("UPDATE users SET points = points + ? WHERE id = ?",
+        points, userId);
+    if (rows == 0) {
+      return false;
+    }
+    cacheEvictor.userChanged(userId);
+    append(userId, points, reason, referenceId);
+    countAfterCommit(awarded.get(reason), points);
+    return true;
+  }
+
+  /**
+   * Resta puntos al usuario solo si su saldo los cubre. Con escritura diferida, quien llame debe
+   * haber volcado antes los abonos pendientes con {@link #settlePending()} y fuera de su
+   * transaccion.
+   *
+   * @return true si se desconto el importe, false si el usuario no existe o no tiene saldo
+   */
+  @Transactional
+  public boolean debit(Long userId, int points, Reason reason, Long referenceId) {
+    if (userId == null || points <= 0) {
+      return false;
+    }
+    int rows = jdbcTemplate.update(
+        "UPDATE users SET points = points - ? WHERE id = ? AND points >= ?",
+        points, userId, points);
+    if (rows == 0) {
+      return false;
+    }
+    cacheEvictor.userChanged(userId);
+    append(userId, -points, reason, referenceId);
+    countAfterCommit(spent.get(reason), points);
+    return true;
+  }
+
+  /**
+   * Saldo actual del usuario, o null si no existe.
+   */
+  public Integer getBalance(Long userId) {
+    if (userId == null) {
+      return null;
+    }
+    return writeBehind.readBalances(() -> {
+      List<Integer> balance = jdbcTemplate.queryForList("SELECT points FROM users WHERE id = ?",
+          Integer.class, userId);
+      return balance.isEmpty() ? null : balance.get(0) + writeBehind.getPending(userId);
+    });
+  }
+
+  /**
+   * Lee usuarios para pasarlos por {@link #withPending(UserDto)} sin que un volcado se confirme
+   * entre la lectura de la fila y la de lo pendiente.
+   */
+  public <T> T readWithPending(Supplier<T> read) {
+    return writeBehind.readBalances(read);
+  }
+
+  /**
+   * El usuario con los abonos que aun no se han escrito en users.points. Se llama dentro de
+   * {@link #readWithPending(Supplier)}, junto con la lectura del usuario.
+   */
+  public UserDto withPending(UserDto user) {
+    if (user == null) {
+      return null;
+    }
+    int pending = writeBehind.getPending(user.getId());
+    if (pending == 0) {
+      return user;
+    }
+    // Copia: el DTO puede venir de la cache de consultas
+    return new UserDto(user.getId(), user.getUsername(), user.isAdmin(),
+        user.getPoints() + pending);
+  }
+
+  /**
+   * Escribe en users.points los abonos pendientes de la escritura diferida.
+   */
+  public void settlePending() {
+    if (writeBehind.hasPending()) {
+      writeBehind.flush();
+    }
+  }
+
+  /**
+   * Registra como saldo de apertura los puntos de los usuarios que aun no tienen movimientos,
+   * para que los saldos anteriores al libro cuadren con el.
+   *
+   * @return Numero de usuarios registrados
+   */
+  @Transactional
+  public int seedOpeningBalances() {
+    return jdbcTemplate.update(
+        "INSERT INTO points_ledger (user_id, delta, reason, created_at) "
+            + "SELECT u.id, u.points, ?, ? FROM users u WHERE u.points <> 0 "
+            + "AND NOT EXISTS (SELECT 1 FROM points_ledger l WHERE l.user_id = u.id)",
+        Reason.OPENING_BALANCE.name(), LocalDateTime.now());
+  }
+
+  /**
+   * Los contadores solo reflejan movimientos confirmados: si hay una transaccion en curso (por
+   * ejemplo la de completar una tarea) se incrementan cuando se confirma.
+   */
+  private void countAfterCommit(Counter counter, int points) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      counter.increment(points);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        counter.increment(points);
+      }
+    });
+  }
+
+  private void append(Long userId, int delta, Reason reason, Long referenceId) {
+    jdbcTemplate.update(INSERT_LEDGER, userId, delta, reason.name(), referenceId,
+        LocalDateTime.now());
+  }
+}
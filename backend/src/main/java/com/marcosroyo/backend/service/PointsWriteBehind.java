@@ -0,0 +1,626 @@
+package com.marcosroyo.backend.service;
+
+import com.marcosroyo.backend.model.PointsLedgerEntry.Reason;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Escritura diferida de los puntos sumados (points.write-behind.enabled). En lugar de un UPDATE
+ * sobre la fila del usuario por cada tarea completada, los abonos se acumulan en memoria (un
+ * LongAdder por usuario) y {@link #flush()} los escribe por lotes en users.points y points_ledger.
+ *
+ * <p>Cada abono se anota antes en un diario local, un fichero por segmento en
+ * points.write-behind.journal-dir. La linea del abono se escribe (con fsync si
+ * points.write-behind.journal-fsync esta activo) justo antes de confirmar la transaccion que lo
+ * origina, de modo que si no se puede anotar la transaccion no se confirma. Al terminar se anota
+ * si se confirmo o se deshizo; un abono sin ninguna de las dos marcas quedo en duda por una caida
+ * durante la confirmacion, y se decide mirando la fila de la tarea que lo origino.
+ *
+ * <p>Al volcar se cierra el segmento activo y, cuando ya no le quedan transacciones en curso, se
+ * aplica en una transaccion que tambien lo registra en points_journal_segments; despues se borra
+ * el fichero. Al arrancar se aplican los segmentos que hayan quedado en disco (aunque el modo este
+ * desactivado), saltando los ya registrados, de modo que tras una caida ningun abono confirmado
+ * se pierde ni se aplica dos veces. Los segmentos se identifican por la instancia
+ * (points.write-behind.instance-id, por defecto el nombre del host) y un UUID, asi que varias
+ * instancias sobre la misma base de datos no se pisan.
+ *
+ * <p>Hasta que se confirma, un abono solo lo ve su transaccion en {@link #getPending(Long)}.
+ */
+@Component
+public class PointsWriteBehind {
+
+  private static final Logger logger = LoggerFactory.getLogger(PointsWriteBehind.class);
+
+  private static final String SEGMENT_PREFIX = "points-";
+  private static final String SEGMENT_SUFFIX = ".journal";
+
+  // Tipos de linea del diario: abono, confirmado y deshecho
+  private static final String CREDIT = "C";
+  private static final String COMMITTED = "K";
+  private static final String ROLLED_BACK = "T";
+
+  /**
+   * Un abono en duda de una tarea se confirmo si la tarea quedo completada en esa fecha. El
+   * reinicio diario solo desmarca is_completed, asi que en las diarias basta la fecha.
+   */
+  private static final String TASK_COMPLETED_ON =
+      "SELECT COUNT(*) FROM tasks WHERE id = ? AND last_completed_date = ? "
+          + "AND (is_completed = TRUE OR is_daily = TRUE)";
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private SecondLevelCacheEvictor cacheEvictor;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${points.write-behind.enabled:false}")
+  private boolean enabled;
+
+  @Value("${points.write-behind.journal-dir:points-journal}")
+  private String journalDir;
+
+  @Value("${points.write-behind.journal-fsync:true}")
+  private boolean journalFsync;
+
+  @Value("${points.write-behind.instance-id:}")
+  private String instanceId;
+
+  // Los LongAdder no se quitan del mapa al volcar: como mucho hay uno por usuario
+  private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+  // Anotar en los segmentos y cerrarlos; los volcados se hacen de uno en uno
+  private final ReentrantLock journalLock = new ReentrantLock();
+  private final ReentrantLock flushLock = new ReentrantLock();
+
+  // Lecturas de users.points mas lo pendiente frente a la confirmacion de un volcado
+  private final ReentrantReadWriteLock balanceLock = new ReentrantReadWriteLock();
+
+  private Path directory;
+  private TransactionTemplate flushTransaction;
+  private Segment active;
+  private final Deque<Segment> sealed = new ConcurrentLinkedDeque<>();
+
+  @PostConstruct
+  public void init() throws IOException {
+    directory = Path.of(journalDir);
+    if (instanceId == null || instanceId.isBlank()) {
+      instanceId = InetAddress.getLocalHost().getHostName();
+    }
+    // Forma parte del nombre del fichero: solo caracteres seguros
+    instanceId = instanceId.replaceAll("[^A-Za-z0-9_-]", "_");
+    flushTransaction = new TransactionTemplate(transactionManager);
+    flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    recover();
+
+    Gauge.builder("points.write-behind.pending", pending,
+            map -> map.values().stream().mapToLong(LongAdder::sum).sum())
+        .description("Puntos sumados en memoria pendientes de escribir en users.points")
+        .register(meterRegistry);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Anota un abono al confirmar la transaccion en curso (o en el momento si no hay ninguna). Si
+   * la transaccion se deshace, el abono se descarta.
+   *
+   * @param completedOn Fecha de completado si el abono es de una tarea (referenceId), con la que
+   *                    se decide tras una caida si la transaccion llego a confirmarse
+   */
+  public void creditAfterCommit(Long userId, int points, Reason reason, Long referenceId,
+      LocalDate completedOn) {
+    Entry entry = new Entry(userId, points, reason, referenceId, completedOn,
+        LocalDateTime.now());
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      List<Entry> entries = List.of(entry);
+      journal(entries);
+      resolve(entries, true);
+      return;
+    }
+    TransactionCredits credits = uncommitted();
+    credits.entries.add(entry);
+    credits.points.merge(userId, points, Integer::sum);
+  }
+
+  /**
+   * Puntos del usuario que aun no estan en users.points: los confirmados y, dentro de una
+   * transaccion, los que esta ha sumado sin confirmar.
+   */
+  public int getPending(Long userId) {
+    LongAdder adder = pending.get(userId);
+    long total = adder != null ? adder.sum() : 0;
+    if (TransactionSynchronizationManager.getResource(this) instanceof TransactionCredits credits
+        && credits.points.get(userId) instanceof Integer points) {
+      total += points;
+    }
+    return (int) total;
+  }
+
+  /**
+   * Ejecuta una lectura que combina users.points con {@link #getPending(Long)} sin que un volcado
+   * se confirme en medio: veria los abonos en la fila y todavia pendientes, dos veces. La lectura
+   * no debe tomar bloqueos en la base de datos (un SELECT normal).
+   */
+  public <T> T readBalances(Supplier<T> read) {
+    if (!enabled) {
+      return read.get();
+    }
+    balanceLock.readLock().lock();
+    try {
+      return read.get();
+    } finally {
+      balanceLock.readLock().unlock();
+    }
+  }
+
+  public boolean hasPending() {
+    return pending.values().stream().anyMatch(adder -> adder.sum() != 0);
+  }
+
+  /**
+   * Cierra el segmento activo y aplica los segmentos cerrados en orden. Un segmento con
+   * transacciones aun sin terminar se deja, con los siguientes, para el proximo volcado. Si falla
+   * la base de datos, los segmentos siguen en memoria y en disco y se reintentan despues.
+   *
+   * @return Numero de abonos aplicados
+   */
+  public int flush() {
+    flushLock.lock();
+    try {
+      journalLock.lock();
+      try {
+        if (active != null) {
+          sealed.add(active);
+          active = null;
+        }
+      } finally {
+        journalLock.unlock();
+      }
+
+      int applied = 0;
+      while (!sealed.isEmpty()) {
+        Segment segment = sealed.peek();
+        journalLock.lock();
+        try {
+          if (segment.inFlight > 0) {
+            break;
+          }
+          segment.close();
+        } finally {
+          journalLock.unlock();
+        }
+        applied += apply(segment, true);
+        sealed.poll();
+      }
+      return applied;
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  @PreDestroy
+  public void close() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      // Los segmentos se quedan en disco y se aplican al arrancar
+      logger.warn("Could not flush pending points on shutdown", e);
+    }
+  }
+
+  /**
+   * Anota los abonos en el segmento activo con un solo fsync. Si falla, la excepcion deshace la
+   * transaccion que los origina.
+   */
+  private void journal(List<Entry> entries) {
+    journalLock.lock();
+    try {
+      if (active == null) {
+        active = Segment.open(directory, instanceId + "-" + UUID.randomUUID());
+      }
+      active.write(entries, journalFsync);
+    } catch (IOException e) {
+      // El segmento puede haber quedado con una linea a medias: los siguientes abonos van a otro
+      if (active != null) {
+        sealed.add(active);
+        active = null;
+      }
+      throw new UncheckedIOException("No se pudo anotar el abono en el diario de puntos", e);
+    } finally {
+      journalLock.unlock();
+    }
+  }
+
+  /**
+   * Anota si la transaccion se confirmo o se deshizo. Sin fsync: si la marca se pierde, el abono
+   * queda en duda y se decide con la fila de la tarea.
+   */
+  private void resolve(List<Entry> entries, boolean committed) {
+    journalLock.lock();
+    try {
+      Segment segment = entries.get(0).segment;
+      try {
+        segment.mark(entries, committed ? COMMITTED : ROLLED_BACK);
+      } catch (IOException e) {
+        logger.warn("Could not mark points journal segment {}", segment.file, e);
+      }
+      for (Entry entry : entries) {
+        entry.state = committed ? State.COMMITTED : State.ROLLED_BACK;
+        if (committed) {
+          pending.computeIfAbsent(entry.userId, id -> new LongAdder()).add(entry.points);
+        }
+      }
+      segment.inFlight -= entries.size();
+    } finally {
+      journalLock.unlock();
+    }
+  }
+
+  /**
+   * Aplica el segmento en una transaccion propia: un UPDATE por usuario con la suma de sus abonos,
+   * una fila de points_ledger por abono y la marca del segmento. Se aplican los abonos confirmados
+   * y los que estaban en duda si la tarea quedo completada; los usuarios borrados entretanto se
+   * saltan.
+   *
+   * <p>Los abonos confirmados se descuentan de lo pendiente sin soltar el cerrojo de escritura de
+   * {@link #readBalances}, que se toma cuando ya se han escrito todas las filas (y por tanto sin
+   * esperar a otras transacciones) y se suelta tras confirmar: ninguna lectura ve los abonos en
+   * users.points y todavia pendientes.
+   *
+   * @param inMemory Si los abonos confirmados estan sumados en lo pendiente (no al recuperar)
+   * @return Numero de abonos aplicados
+   */
+  private int apply(Segment segment, boolean inMemory) {
+    Integer count;
+    try {
+      count = flushTransaction.execute(status -> {
+        Integer applied = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM points_journal_segments WHERE segment_id = ?", Integer.class,
+            segment.id);
+        if (applied != null && applied > 0) {
+          balanceLock.writeLock().lock();
+          return 0;
+        }
+        return applyEntries(segment);
+      });
+      if (inMemory) {
+        for (Entry entry : segment.entries.values()) {
+          if (entry.state == State.COMMITTED) {
+            pending.get(entry.userId).add(-entry.points);
+          }
+        }
+      }
+    } finally {
+      if (balanceLock.isWriteLockedByCurrentThread()) {
+        balanceLock.writeLock().unlock();
+      }
+    }
+
+    try {
+      Files.deleteIfExists(segment.file);
+    } catch (IOException e) {
+      // Ya esta registrado como aplicado: al arrancar solo se borrara
+      logger.warn("Could not delete applied points journal segment {}", segment.file, e);
+    }
+    return count != null ? count : 0;
+  }
+
+  // Escribe los abonos del segmento y termina con el cerrojo de escritura tomado
+  private int applyEntries(Segment segment) {
+    List<Entry> entries = new ArrayList<>();
+    for (Entry entry : segment.entries.values()) {
+      if (entry.state == State.COMMITTED
+          || (entry.state == State.IN_DOUBT && settle(segment, entry))) {
+        entries.add(entry);
+      }
+    }
+
+    Map<Long, Integer> totals = new LinkedHashMap<>();
+    for (Entry entry : entries) {
+      totals.merge(entry.userId, entry.points, Integer::sum);
+    }
+    List<Long> userIds = new ArrayList<>(totals.keySet());
+    int[] rows = jdbcTemplate.batchUpdate("UPDATE users SET points = points + ? WHERE id = ?",
+        userIds.stream().map(id -> new Object[] {totals.get(id), id}).toList());
+    List<Object[]> ledger = new ArrayList<>();
+    for (Entry entry : entries) {
+      if (rows[userIds.indexOf(entry.userId)] != 0) {
+        ledger.add(new Object[] {entry.userId, entry.points, entry.reason.name(),
+            entry.referenceId, entry.createdAt});
+      }
+    }
+    jdbcTemplate.batchUpdate(PointsService.INSERT_LEDGER, ledger);
+    jdbcTemplate.update(
+        "INSERT INTO points_journal_segments (segment_id, applied_at) VALUES (?, ?)",
+        segment.id, LocalDateTime.now());
+    userIds.forEach(cacheEvictor::userChanged);
+    // Escrito todo: las filas ya estan bloqueadas por esta transaccion y solo falta confirmar
+    balanceLock.writeLock().lock();
+    return entries.size();
+  }
+
+  /**
+   * Decide un abono en duda con la fila de la tarea que lo origino. Sin tarea con la que
+   * comprobarlo no se aplica: se avisa para revisarlo a mano.
+   */
+  private boolean settle(Segment segment, Entry entry) {
+    if (entry.reason == Reason.TASK_COMPLETED && entry.referenceId != null
+        && entry.completedOn != null) {
+      Integer completed = jdbcTemplate.queryForObject(TASK_COMPLETED_ON, Integer.class,
+          entry.referenceId, entry.completedOn);
+      boolean committed = completed != null && completed > 0;
+      logger.info("In-doubt credit {} of segment {} settled as {}", entry.seq, segment.id,
+          committed ? "committed" : "rolled back");
+      return committed;
+    }
+    logger.warn("Skipping in-doubt credit {} of segment {} with nothing to settle it against: {}",
+        entry.seq, segment.id, entry.toLine().trim());
+    return false;
+  }
+
+  void recover() throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return;
+    }
+    List<Path> files;
+    try (Stream<Path> list = Files.list(directory)) {
+      files = list.filter(file -> segmentId(file) != null).sorted().toList();
+    }
+    for (Path file : files) {
+      Segment segment = Segment.read(file, segmentId(file));
+      int applied = apply(segment, false);
+      logger.info("Recovered points journal segment {}: {} of {} credits applied", file, applied,
+          segment.entries.size());
+    }
+  }
+
+  private static String segmentId(Path file) {
+    String name = file.getFileName().toString();
+    if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)
+        || name.length() == SEGMENT_PREFIX.length() + SEGMENT_SUFFIX.length()) {
+      return null;
+    }
+    return name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+  }
+
+  private TransactionCredits uncommitted() {
+    TransactionCredits credits =
+        (TransactionCredits) TransactionSynchronizationManager.getResource(this);
+    if (credits != null) {
+      return credits;
+    }
+    TransactionCredits bound = new TransactionCredits();
+    TransactionSynchronizationManager.bindResource(this, bound);
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void beforeCommit(boolean readOnly) {
+        journal(bound.entries);
+        bound.journaled = true;
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResource(PointsWriteBehind.this);
+        if (!bound.journaled) {
+          return;
+        }
+        if (status == STATUS_UNKNOWN) {
+          // Sin marca: el abono queda en duda y se decide al aplicar el segmento
+          journalLock.lock();
+          try {
+            bound.entries.get(0).segment.inFlight -= bound.entries.size();
+          } finally {
+            journalLock.unlock();
+          }
+          return;
+        }
+        resolve(bound.entries, status == STATUS_COMMITTED);
+      }
+    });
+    return bound;
+  }
+
+  private enum State {
+    IN_DOUBT,
+    COMMITTED,
+    ROLLED_BACK
+  }
+
+  // Abonos de la transaccion en curso, aun sin anotar
+  private static class TransactionCredits {
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<Long, Integer> points = new HashMap<>();
+    private boolean journaled;
+  }
+
+  private static class Entry {
+
+    private final Long userId;
+    private final int points;
+    private final Reason reason;
+    private final Long referenceId;
+    private final LocalDate completedOn;
+    private final LocalDateTime createdAt;
+    private int seq;
+    private Segment segment;
+    private State state = State.IN_DOUBT;
+
+    Entry(Long userId, int points, Reason reason, Long referenceId, LocalDate completedOn,
+        LocalDateTime createdAt) {
+      this.userId = userId;
+      this.points = points;
+      this.reason = reason;
+      this.referenceId = referenceId;
+      this.completedOn = completedOn;
+      this.createdAt = createdAt;
+    }
+
+    String toLine() {
+      return CREDIT + "," + seq + "," + userId + "," + points + "," + reason.name() + ","
+          + (referenceId != null ? referenceId : "") + ","
+          + (completedOn != null ? completedOn : "") + "," + createdAt + "\n";
+    }
+
+    static Entry parse(String[] fields) {
+      Entry entry = new Entry(Long.valueOf(fields[2]), Integer.parseInt(fields[3]),
+          Reason.valueOf(fields[4]), fields[5].isEmpty() ? null : Long.valueOf(fields[5]),
+          fields[6].isEmpty() ? null : LocalDate.parse(fields[6]),
+          LocalDateTime.parse(fields[7]));
+      entry.seq = Integer.parseInt(fields[1]);
+      return entry;
+    }
+  }
+
+  private static class Segment {
+
+    private final String id;
+    private final Path file;
+    private final Map<Integer, Entry> entries = new LinkedHashMap<>();
+    private FileChannel channel;
+    // Abonos anotados cuya transaccion aun no ha terminado; protegido por journalLock
+    private int inFlight;
+
+    private Segment(String id, Path file) {
+      this.id = id;
+      this.file = file;
+    }
+
+    static Segment open(Path directory, String id) throws IOException {
+      Files.createDirectories(directory);
+      Segment segment = new Segment(id, directory.resolve(SEGMENT_PREFIX + id + SEGMENT_SUFFIX));
+      segment.channel = FileChannel.open(segment.file, StandardOpenOption.CREATE_NEW,
+          StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+      return segment;
+    }
+
+    /**
+     * Lee un segmento que quedo en disco. Solo cuentan las lineas terminadas en salto de linea:
+     * una ultima linea incompleta es un abono o una marca que no llego a escribirse del todo, y
+     * un abono a medias nunca se confirmo.
+     */
+    static Segment read(Path file, String id) throws IOException {
+      Segment segment = new Segment(id, file);
+      String content = Files.readString(file, StandardCharsets.UTF_8);
+      int end = content.lastIndexOf('\n');
+      if (end < content.length() - 1) {
+        logger.warn("Skipping torn last line in points journal segment {}", file);
+      }
+      if (end < 0) {
+        return segment;
+      }
+      for (String line : content.substring(0, end).split("\n")) {
+        try {
+          segment.readLine(line);
+        } catch (RuntimeException e) {
+          logger.warn("Skipping malformed line in points journal segment {}: {}", file, line);
+        }
+      }
+      return segment;
+    }
+
+    private void readLine(String line) {
+      String[] fields = line.split(",", -1);
+      if (CREDIT.equals(fields[0])) {
+        Entry entry = Entry.parse(fields);
+        entries.put(entry.seq, entry);
+        return;
+      }
+      Entry entry = entries.get(Integer.valueOf(fields[1]));
+      if (COMMITTED.equals(fields[0])) {
+        entry.state = State.COMMITTED;
+      } else if (ROLLED_BACK.equals(fields[0])) {
+        entry.state = State.ROLLED_BACK;
+      } else {
+        throw new IllegalArgumentException(line);
+      }
+    }
+
+    void write(List<Entry> credits, boolean fsync) throws IOException {
+      StringBuilder lines = new StringBuilder();
+      int seq = entries.size();
+      for (Entry entry : credits) {
+        entry.seq = seq++;
+        lines.append(entry.toLine());
+      }
+      append(lines, fsync);
+      for (Entry entry : credits) {
+        entry.segment = this;
+        entries.put(entry.seq, entry);
+      }
+      inFlight += credits.size();
+    }
+
+    void mark(List<Entry> credits, String type) throws IOException {
+      StringBuilder lines = new StringBuilder();
+      for (Entry entry : credits) {
+        lines.append(type).append(',').append(entry.seq).append('\n');
+      }
+      append(lines, false);
+    }
+
+    private void append(CharSequence lines, boolean fsync) throws IOException {
+      ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      if (fsync) {
+        channel.force(false);
+      }
+    }
+
+    void close() {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        logger.warn("Could not close points journal segment {}", file, e);
+      }
+    }
+  }
+}
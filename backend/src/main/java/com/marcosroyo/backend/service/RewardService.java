@@ -1,20 +1,38 @@
 package com.marcosroyo.backend.service;
 
+import com.marcosroyo.backend.config.SqlStatementCounter;
+import com.marcosroyo.backend.dto.KeysetPage;
 import com.marcosroyo.backend.dto.RewardDto;
+import com.marcosroyo.backend.dto.RewardRedemptionResult;
+import com.marcosroyo.backend.dto.RewardRedemptionResult.Outcome;
 import com.marcosroyo.backend.dto.mapper.RewardDtoMapper;
 import com.marcosroyo.backend.exceptions.ResourceNotFoundException;
+import com.marcosroyo.backend.jfr.RewardRedemptionEvent;
+import com.marcosroyo.backend.model.PointsLedgerEntry.Reason;
 import com.marcosroyo.backend.model.Reward;
 import com.marcosroyo.backend.model.User;
 import com.marcosroyo.backend.repository.RewardRepository;
 import com.marcosroyo.backend.repository.UserRepository;
+import com.marcosroyo.backend.service.UserEventStream.EventType;
+import io.micrometer.core.annotation.Timed;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
+@Timed("service.method")
 public class RewardService {
 
+  /**
+   * Marca la recompensa como canjeada solo si sigue disponible.
+   */
+  private static final String REDEEM_IF_AVAILABLE =
+      "UPDATE rewards SET is_redeemed = 1 WHERE id = ? AND is_redeemed = 0";
+
   @Autowired
   private RewardRepository rewardRepo;
 
@@ -24,67 +42,175 @@ public class RewardService {
   @Autowired
   private RewardDtoMapper rewardDtoMapper;
 
+  @Autowired
+  private PointsService pointsService;
+
+  @Autowired
+  private SecondLevelCacheEvictor cacheEvictor;
+
+  @Autowired
+  private UserChangeVersions changeVersions;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private UserEventStream userEvents;
+
   public List<RewardDto> getAllRewards(Long userId, boolean isAdmin) {
-    List<Reward> rewards = isAdmin ? rewardRepo.findAll() : rewardRepo.findByAssignedToId(userId);
-    return rewards.stream().map(rewardDtoMapper::toDto).collect(Collectors.toList());
+    return isAdmin ? rewardRepo.findAllDtos() : rewardRepo.findDtosByAssignedToId(userId);
   }
 
   public RewardDto getRewardById(Long id) {
-    Reward reward = rewardRepo.findById(id)
-        .orElseThrow(() -> new ResourceNotFoundException("Recompensa no encontrada"));
-    return rewardDtoMapper.toDto(reward);
+    return rewardRepo.findDtoById(id)
+        .orElseThrow(() -> ResourceNotFoundException.REWARD);
   }
 
   public List<RewardDto> getAvailableRewards(Long userId, boolean isAdmin) {
-    List<Reward> rewards = isAdmin
-        ? rewardRepo.findByIsRedeemedFalse()
-        : rewardRepo.findByAssignedToIdAndIsRedeemedFalse(userId);
-
-    return rewards.stream().map(rewardDtoMapper::toDto).collect(Collectors.toList());
+    return isAdmin
+        ? rewardRepo.findDtosByIsRedeemed(false)
+        : rewardRepo.findDtosByAssignedToIdAndIsRedeemed(userId, false);
   }
 
   public List<RewardDto> getRedeemedRewards(Long userId, boolean isAdmin) {
-    List<Reward> rewards = isAdmin
-        ? rewardRepo.findByIsRedeemedTrue()
-        : rewardRepo.findByAssignedToIdAndIsRedeemedTrue(userId);
+    return isAdmin
+        ? rewardRepo.findDtosByIsRedeemed(true)
+        : rewardRepo.findDtosByAssignedToIdAndIsRedeemed(userId, true);
+  }
 
-    return rewards.stream().map(rewardDtoMapper::toDto).collect(Collectors.toList());
+  public KeysetPage<RewardDto> getAllRewardsPage(Long userId, boolean isAdmin, Long after,
+      Integer limit) {
+    int size = KeysetPage.clampLimit(limit);
+    long cursor = after != null ? after : 0L;
+    List<RewardDto> rewards = isAdmin
+        ? rewardRepo.findDtosAfter(cursor, Limit.of(size + 1))
+        : rewardRepo.findDtosByAssignedToIdAfter(userId, cursor, Limit.of(size + 1));
+    return KeysetPage.of(rewards, size, RewardDto::getId);
   }
 
-  public RewardDto createReward(Reward reward) {
-    User user = null;
-    if (reward.getAssignedTo() != null && reward.getAssignedTo().getId() != null) {
-      user = userRepo.findById(reward.getAssignedTo().getId())
-          .orElseThrow(() -> new ResourceNotFoundException("Usuario asignado no encontrado"));
-      reward.setAssignedTo(user);
-    } else {
-      reward.setAssignedTo(null);
-    }
+  public KeysetPage<RewardDto> getAvailableRewardsPage(Long userId, boolean isAdmin, Long after,
+      Integer limit) {
+    return getRewardsPageByRedemption(userId, isAdmin, false, after, limit);
+  }
 
-    Reward savedReward = rewardRepo.save(reward);
-    return rewardDtoMapper.toDto(savedReward);
+  public KeysetPage<RewardDto> getRedeemedRewardsPage(Long userId, boolean isAdmin, Long after,
+      Integer limit) {
+    return getRewardsPageByRedemption(userId, isAdmin, true, after, limit);
   }
 
-  public RewardDto redeemReward(Long rewardId) {
-    Reward reward = rewardRepo.findById(rewardId)
-        .orElseThrow(() -> new RuntimeException("Recompensa no encontrada"));
+  private KeysetPage<RewardDto> getRewardsPageByRedemption(Long userId, boolean isAdmin,
+      boolean redeemed, Long after, Integer limit) {
+    int size = KeysetPage.clampLimit(limit);
+    long cursor = after != null ? after : 0L;
+    List<RewardDto> rewards = isAdmin
+        ? rewardRepo.findDtosByIsRedeemedAfter(redeemed, cursor, Limit.of(size + 1))
+        : rewardRepo.findDtosByAssignedToIdAndIsRedeemedAfter(userId, redeemed, cursor,
+            Limit.of(size + 1));
+    return KeysetPage.of(rewards, size, RewardDto::getId);
+  }
+
+  public RewardDto createReward(Reward reward) {
+    RewardDto savedReward = transactionTemplate.execute(status -> {
+      if (reward.getAssignedTo() != null && reward.getAssignedTo().getId() != null) {
+        User user = userRepo.findById(reward.getAssignedTo().getId())
+            .orElseThrow(() -> ResourceNotFoundException.ASSIGNED_USER);
+        reward.setAssignedTo(user);
+      } else {
+        reward.setAssignedTo(null);
+      }
+      return rewardDtoMapper.toDto(rewardRepo.save(reward));
+    });
+    changeVersions.bump(savedReward.getUserId());
+    return savedReward;
+  }
 
-    if (!reward.isRedeemed()) {
+  /**
+   * Canjea una recompensa en una sola transaccion y sin cargar entidades. Primero se descuenta el
+   * precio con el UPDATE condicional sobre el saldo y despues se marca la recompensa solo si sigue
+   * sin canjear; si otro canje se la ha llevado antes, se deshace la transaccion. Todos los canjes
+   * bloquean la fila del usuario antes que la de la recompensa, y ninguno toma un bloqueo
+   * compartido sobre users, asi que dos canjes simultaneos del mismo usuario se esperan en lugar
+   * de bloquearse mutuamente.
+   *
+   * @param rewardId ID de la recompensa a canjear
+   * @return El resultado del canje, la recompensa y el saldo del usuario asignado
+   */
+  public RewardRedemptionResult redeemReward(Long rewardId) {
+    RewardRedemptionEvent event = new RewardRedemptionEvent();
+    event.begin();
+    int statementsBefore = SqlStatementCounter.current();
+    // El canje compara el precio con users.points, que debe incluir los abonos diferidos
+    pointsService.settlePending();
+    RewardRedemptionResult result = transactionTemplate.execute(status -> {
+      Optional<RewardDto> found = rewardRepo.findDtoById(rewardId);
+      if (found.isEmpty()) {
+        return new RewardRedemptionResult(Outcome.NOT_FOUND, null, null);
+      }
+      RewardDto reward = found.get();
+      Long assignedUserId = reward.getUserId();
+      if (reward.isRedeemed()) {
+        return new RewardRedemptionResult(Outcome.ALREADY_REDEEMED, reward,
+            pointsService.getBalance(assignedUserId));
+      }
+      boolean debited = assignedUserId != null && reward.getPrice() > 0;
+      if (debited && !pointsService.debit(assignedUserId, reward.getPrice(),
+          Reason.REWARD_REDEEMED, rewardId)) {
+        return new RewardRedemptionResult(Outcome.INSUFFICIENT_POINTS, reward,
+            pointsService.getBalance(assignedUserId));
+      }
+      if (jdbcTemplate.update(REDEEM_IF_AVAILABLE, rewardId) == 0) {
+        // Otro canje la marco primero: se devuelve el descuento deshaciendo la transaccion
+        status.setRollbackOnly();
+        reward.setRedeemed(true);
+        Integer balance = pointsService.getBalance(assignedUserId);
+        return new RewardRedemptionResult(Outcome.ALREADY_REDEEMED, reward,
+            debited && balance != null ? balance + reward.getPrice() : balance);
+      }
+      cacheEvictor.rewardChanged(rewardId);
       reward.setRedeemed(true);
-      User assignedUser = reward.getAssignedTo();
-      if (assignedUser != null) {
-        assignedUser.substractPoints(reward.getPrice());
-        userRepo.save(assignedUser);
+      return new RewardRedemptionResult(Outcome.REDEEMED, reward,
+          pointsService.getBalance(assignedUserId));
+    });
+
+    if (result.getOutcome() == Outcome.REDEEMED) {
+      RewardDto redeemedReward = result.getReward();
+      Long assignedUserId = redeemedReward.getUserId();
+      changeVersions.bump(assignedUserId);
+      userEvents.publish(assignedUserId, EventType.REWARD_REDEEMED, () -> redeemedReward);
+      if (assignedUserId != null) {
+        userEvents.publish(assignedUserId, EventType.POINTS_CHANGED,
+            () -> pointsService.readWithPending(
+                () -> userRepo.findDtoById(assignedUserId).map(pointsService::withPending)
+                    .orElse(null)));
       }
-      reward = rewardRepo.save(reward);
     }
-    return rewardDtoMapper.toDto(reward);
+
+    event.end();
+    if (event.shouldCommit()) {
+      RewardDto reward = result.getReward();
+      event.rewardId = rewardId;
+      event.userId = reward != null && reward.getUserId() != null ? reward.getUserId() : 0;
+      event.outcome = result.getOutcome().name();
+      event.price = reward != null ? reward.getPrice() : 0;
+      event.rowsUpdated = result.getOutcome() == Outcome.REDEEMED ? 1 : 0;
+      event.statements = SqlStatementCounter.since(statementsBefore);
+      event.commit();
+    }
+    return result;
   }
 
   public boolean deleteReward(Long rewardId, boolean isAdmin) {
     if (isAdmin) {
-      if (rewardRepo.existsById(rewardId)) {
-        rewardRepo.deleteById(rewardId);
+      Optional<RewardDto> reward = transactionTemplate.execute(status -> {
+        Optional<RewardDto> found = rewardRepo.findDtoById(rewardId);
+        found.ifPresent(dto -> rewardRepo.deleteById(rewardId));
+        return found;
+      });
+      if (reward.isPresent()) {
+        changeVersions.bump(reward.get().getUserId());
         return true;
       }
     }
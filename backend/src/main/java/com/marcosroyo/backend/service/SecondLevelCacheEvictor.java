@@ -0,0 +1,161 @@
+package com.marcosroyo.backend.service;
+
+import com.marcosroyo.backend.config.SecondLevelCacheConfig;
+import com.marcosroyo.backend.model.Reward;
+import com.marcosroyo.backend.model.Task;
+import com.marcosroyo.backend.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.Cache;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Invalida la cache de segundo nivel tras las escrituras que Hibernate no ve (INSERT y UPDATE con
+ * JdbcTemplate); las que pasan por los repositorios ya las invalida Hibernate. De las entidades se
+ * expulsa solo la fila escrita. Las consultas no se expulsan: se marca la tabla en la cache de
+ * marcas de tiempo, igual que hace Hibernate con una consulta nativa de escritura que declara sus
+ * tablas, y las consultas guardadas que la leen dejan de valer por si solas.
+ *
+ * <p>Dentro de una transaccion la tabla se pre-invalida en el momento, de modo que nadie guarde
+ * ni use consultas sobre ella hasta que termine, y se invalida al terminar; la fila se expulsa en
+ * ambos momentos para descartar lo que otra peticion haya leido antes de confirmarse la
+ * escritura. Hasta entonces las consultas de la propia transaccion no usan la cache: deben ver su
+ * escritura y no deben guardarla mientras no este confirmada.
+ */
+@Component
+public class SecondLevelCacheEvictor {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private SessionFactoryImplementor sessionFactory;
+  private Cache cache;
+  private TimestampsCache timestamps;
+  private String[] userTables;
+  private String[] rewardTables;
+  private String[] taskTables;
+  private final Map<String, Counter> invalidations = new HashMap<>();
+
+  @PostConstruct
+  public void init() {
+    sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    cache = sessionFactory.getCache();
+    timestamps = sessionFactory.getCache().getTimestampsCache();
+    userTables = tablesOf(User.class);
+    rewardTables = tablesOf(Reward.class);
+    taskTables = tablesOf(Task.class);
+    register(SecondLevelCacheConfig.USERS, userTables);
+    register(SecondLevelCacheConfig.REWARDS, rewardTables);
+    for (String[] tables : List.of(userTables, rewardTables, taskTables)) {
+      register(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, tables);
+    }
+  }
+
+  /**
+   * El saldo u otra columna del usuario ha cambiado.
+   */
+  public void userChanged(Long userId) {
+    if (userId == null) {
+      return;
+    }
+    count(SecondLevelCacheConfig.USERS, userTables);
+    invalidate(userTables, () -> cache.evictEntityData(User.class, userId));
+  }
+
+  public void rewardChanged(Long rewardId) {
+    count(SecondLevelCacheConfig.REWARDS, rewardTables);
+    invalidate(rewardTables, () -> cache.evictEntityData(Reward.class, rewardId));
+  }
+
+  /**
+   * Se han insertado o actualizado tareas (Task no se guarda como entidad en la cache).
+   */
+  public void tasksChanged() {
+    invalidate(taskTables, () -> { });
+  }
+
+  private void invalidate(String[] tables, Runnable eviction) {
+    count(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, tables);
+    if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+      // Sin transaccion la escritura ya esta confirmada
+      try (Session session = sessionFactory.openSession()) {
+        timestamps.invalidate(tables, (SharedSessionContractImplementor) session);
+      }
+      eviction.run();
+      return;
+    }
+    SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+    timestamps.preInvalidate(tables, session);
+    eviction.run();
+    bypassCacheUntilCompletion(session);
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        timestamps.invalidate(tables, session);
+        eviction.run();
+      }
+    });
+  }
+
+  // La sesion puede durar mas que la transaccion (si se reactiva open-in-view o en una transaccion
+  // anidada): se restaura el modo al acabar
+  private void bypassCacheUntilCompletion(Session session) {
+    CacheMode previous = session.getCacheMode();
+    if (previous == CacheMode.IGNORE) {
+      return;
+    }
+    session.setCacheMode(CacheMode.IGNORE);
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (session.isOpen()) {
+          session.setCacheMode(previous);
+        }
+      }
+    });
+  }
+
+  private String[] tablesOf(Class<?> entity) {
+    return sessionFactory.getMappingMetamodel().getEntityDescriptor(entity)
+        .getSynchronizedQuerySpaces();
+  }
+
+  private void register(String region, String[] tables) {
+    for (String table : tables) {
+      invalidations.put(region + "/" + table, Counter.builder("cache.invalidations")
+          .description("Invalidaciones de la cache de segundo nivel por escrituras JDBC")
+          .tag("cache", region)
+          .tag("table", table)
+          .register(meterRegistry));
+    }
+  }
+
+  private void count(String region, String[] tables) {
+    for (String table : tables) {
+      invalidations.get(region + "/" + table).increment();
+    }
+  }
+}
@@ -1,21 +1,76 @@
 package com.marcosroyo.backend.service;
 
+import com.marcosroyo.backend.config.SqlStatementCounter;
+import com.marcosroyo.backend.dto.DailyResetReport;
+import com.marcosroyo.backend.dto.KeysetPage;
+import com.marcosroyo.backend.dto.TaskCompletionResult;
 import com.marcosroyo.backend.dto.TaskDto;
 import com.marcosroyo.backend.dto.mapper.TaskDtoMapper;
+import com.marcosroyo.backend.exceptions.InvalidRequestException;
 import com.marcosroyo.backend.exceptions.ResourceNotFoundException;
+import com.marcosroyo.backend.jfr.DailyResetEvent;
+import com.marcosroyo.backend.jfr.TaskCompletionEvent;
 import com.marcosroyo.backend.model.Task;
 import com.marcosroyo.backend.model.User;
 import com.marcosroyo.backend.repository.TaskRepository;
 import com.marcosroyo.backend.repository.UserRepository;
+import com.marcosroyo.backend.service.UserEventStream.EventType;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Las lecturas son una sola consulta de DTOs, sin entidades que vigilar, asi que van sin
+ * transaccion propia: abrirla solo anadiria idas y vueltas al servidor (SET autocommit, SET
+ * SESSION TRANSACTION READ ONLY, COMMIT). Como open-in-view esta desactivado, la conexion se
+ * devuelve al pool al acabar la consulta y no tras serializar la respuesta. Las escrituras usan
+ * su propia transaccion y avisan a los clientes (versiones y eventos) despues de confirmarla.
+ */
 @Service
+@Timed("service.method")
 public class TaskService {
 
+  private static final Logger logger = LoggerFactory.getLogger(TaskService.class);
+
+  private static final String INSERT_TASK =
+      "INSERT INTO tasks (title, description, is_completed, is_daily, last_completed_date, "
+          + "reward_points, user_id) VALUES (?, ?, 0, ?, NULL, ?, ?)";
+
+  /**
+   * Marca la tarea como completada solo si sigue pendiente: no completada, o diaria y completada
+   * otro dia (aun sin reiniciar).
+   */
+  private static final String COMPLETE_IF_PENDING =
+      "UPDATE tasks SET is_completed = 1, last_completed_date = ? WHERE id = ? "
+          + "AND (is_completed = 0 "
+          + "OR (is_daily = 1 AND (last_completed_date IS NULL OR last_completed_date <> ?)))";
+
+  /**
+   * Variante para el modo de completado derivado, donde una tarea diaria esta pendiente siempre
+   * que no se haya completado en la fecha indicada, sea cual sea is_completed.
+   */
+  private static final String COMPLETE_IF_PENDING_DERIVED =
+      "UPDATE tasks SET is_completed = 1, last_completed_date = ? WHERE id = ? "
+          + "AND ((COALESCE(is_daily, 0) = 0 AND is_completed = 0) "
+          + "OR (is_daily = 1 AND (last_completed_date IS NULL OR last_completed_date <> ?)))";
+
   @Autowired
   private TaskDtoMapper taskDtoMapper;
 
@@ -28,40 +83,274 @@ public class TaskService {
   @Autowired
   private JdbcTemplate jdbcTemplate;
 
+  @Autowired
+  private PointsService pointsService;
+
+  @Autowired
+  private UserChangeVersions changeVersions;
+
+  @Autowired
+  private UserEventStream userEvents;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private UserDirectory userDirectory;
+
+  @Autowired
+  private SecondLevelCacheEvictor cacheEvictor;
+
+  @Value("${tasks.batch.insert-size:500}")
+  private int batchInsertSize;
+
+  @Value("${tasks.batch.max-size:5000}")
+  private int batchMaxSize;
+
+  @Value("${tasks.daily-reset.chunk-size:5000}")
+  private int dailyResetChunkSize;
+
+  @Value("${tasks.daily.derived-completion:false}")
+  private boolean derivedDailyCompletion;
+
+  /**
+   * Un tamaño de bloque no positivo dejaria los bucles por bloques sin avanzar: se rechaza al
+   * arrancar.
+   */
+  @PostConstruct
+  public void validateSettings() {
+    requirePositive("tasks.daily-reset.chunk-size", dailyResetChunkSize);
+    requirePositive("tasks.batch.insert-size", batchInsertSize);
+    requirePositive("tasks.batch.max-size", batchMaxSize);
+  }
+
+  private static void requirePositive(String property, int value) {
+    if (value <= 0) {
+      throw new IllegalStateException(property + " debe ser mayor que 0 (es " + value + ")");
+    }
+  }
+
   public List<TaskDto> getAllTasks(Long userId, boolean isAdmin) {
+    return getAllTasks(userId, isAdmin, null);
+  }
 
-    List<Task> tasks = isAdmin ? taskRepo.findAll() : taskRepo.findByAssignedToId(userId);
-    return tasks.stream().map(taskDtoMapper::toDto).collect(Collectors.toList());
+  public List<TaskDto> getAllTasks(Long userId, boolean isAdmin, LocalDate currentDate) {
+    List<TaskDto> tasks = isAdmin
+        ? taskRepo.findAllDtos()
+        : taskRepo.findDtosByAssignedToId(userId);
+    return deriveCompletion(tasks, resolveDate(currentDate));
   }
 
   public TaskDto getTaskById(Long id) {
-    Task task = taskRepo.findById(id)
-        .orElseThrow(() -> new ResourceNotFoundException("Tarea no encontrada"));
-    return taskDtoMapper.toDto(task);
+    return getTaskById(id, null);
+  }
+
+  public TaskDto getTaskById(Long id, LocalDate currentDate) {
+    TaskDto task = taskRepo.findDtoById(id)
+        .orElseThrow(() -> ResourceNotFoundException.TASK);
+    return deriveCompletion(task, resolveDate(currentDate));
   }
 
   public List<TaskDto> getIncompleteTasks(Long userId, boolean isAdmin) {
-    List<Task> tasks = isAdmin
-        ? taskRepo.findByIsCompletedFalse()
-        : taskRepo.findByAssignedToIdAndIsCompletedFalse(userId);
-    return tasks.stream().map(taskDtoMapper::toDto).collect(Collectors.toList());
+    return getIncompleteTasks(userId, isAdmin, null);
+  }
+
+  public List<TaskDto> getIncompleteTasks(Long userId, boolean isAdmin, LocalDate currentDate) {
+    return getTasksByCompletion(userId, isAdmin, false, currentDate);
   }
 
   public List<TaskDto> getCompletedTasks(Long userId, boolean isAdmin) {
-    List<Task> tasks = isAdmin
-        ? taskRepo.findByIsCompletedTrue()
-        : taskRepo.findByAssignedToIdAndIsCompletedTrue(userId);
-    return tasks.stream().map(taskDtoMapper::toDto).collect(Collectors.toList());
+    return getCompletedTasks(userId, isAdmin, null);
+  }
+
+  public List<TaskDto> getCompletedTasks(Long userId, boolean isAdmin, LocalDate currentDate) {
+    return getTasksByCompletion(userId, isAdmin, true, currentDate);
+  }
+
+  private List<TaskDto> getTasksByCompletion(Long userId, boolean isAdmin, boolean completed,
+      LocalDate currentDate) {
+    LocalDate today = resolveDate(currentDate);
+    List<TaskDto> tasks;
+    if (derivedDailyCompletion) {
+      if (isAdmin) {
+        tasks = completed
+            ? taskRepo.findDtosCompletedOn(today)
+            : taskRepo.findDtosIncompleteOn(today);
+      } else {
+        tasks = completed
+            ? taskRepo.findDtosByAssignedToIdCompletedOn(userId, today)
+            : taskRepo.findDtosByAssignedToIdIncompleteOn(userId, today);
+      }
+    } else {
+      tasks = isAdmin
+          ? taskRepo.findDtosByIsCompleted(completed)
+          : taskRepo.findDtosByAssignedToIdAndIsCompleted(userId, completed);
+    }
+    return deriveCompletion(tasks, today);
+  }
+
+  public KeysetPage<TaskDto> getAllTasksPage(Long userId, boolean isAdmin, Long after,
+      Integer limit, LocalDate currentDate) {
+    int size = KeysetPage.clampLimit(limit);
+    long cursor = after != null ? after : 0L;
+    List<TaskDto> tasks = isAdmin
+        ? taskRepo.findDtosAfter(cursor, Limit.of(size + 1))
+        : taskRepo.findDtosByAssignedToIdAfter(userId, cursor, Limit.of(size + 1));
+    return KeysetPage.of(deriveCompletion(tasks, resolveDate(currentDate)), size,
+        TaskDto::getId);
+  }
+
+  public KeysetPage<TaskDto> getIncompleteTasksPage(Long userId, boolean isAdmin, Long after,
+      Integer limit, LocalDate currentDate) {
+    return getTasksPageByCompletion(userId, isAdmin, false, after, limit, currentDate);
+  }
+
+  public KeysetPage<TaskDto> getCompletedTasksPage(Long userId, boolean isAdmin, Long after,
+      Integer limit, LocalDate currentDate) {
+    return getTasksPageByCompletion(userId, isAdmin, true, after, limit, currentDate);
+  }
+
+  private KeysetPage<TaskDto> getTasksPageByCompletion(Long userId, boolean isAdmin,
+      boolean completed, Long after, Integer limit, LocalDate currentDate) {
+    LocalDate today = resolveDate(currentDate);
+    int size = KeysetPage.clampLimit(limit);
+    long cursor = after != null ? after : 0L;
+    Limit page = Limit.of(size + 1);
+    List<TaskDto> tasks;
+    if (derivedDailyCompletion) {
+      if (isAdmin) {
+        tasks = completed
+            ? taskRepo.findDtosCompletedOnAfter(today, cursor, page)
+            : taskRepo.findDtosIncompleteOnAfter(today, cursor, page);
+      } else {
+        tasks = completed
+            ? taskRepo.findDtosByAssignedToIdCompletedOnAfter(userId, today, cursor, page)
+            : taskRepo.findDtosByAssignedToIdIncompleteOnAfter(userId, today, cursor, page);
+      }
+    } else {
+      tasks = isAdmin
+          ? taskRepo.findDtosByIsCompletedAfter(completed, cursor, page)
+          : taskRepo.findDtosByAssignedToIdAndIsCompletedAfter(userId, completed, cursor, page);
+    }
+    return KeysetPage.of(deriveCompletion(tasks, today), size, TaskDto::getId);
+  }
+
+  /**
+   * Indica si el estado completado de las tareas diarias se calcula al leer a partir de
+   * lastCompletedDate en lugar de reiniciarse con escrituras.
+   */
+  public boolean isDerivedDailyCompletion() {
+    return derivedDailyCompletion;
+  }
+
+  private LocalDate resolveDate(LocalDate currentDate) {
+    return currentDate != null ? currentDate : LocalDate.now();
+  }
+
+  private TaskDto deriveCompletion(TaskDto task, LocalDate today) {
+    if (derivedDailyCompletion) {
+      taskDtoMapper.deriveCompletion(task, today);
+    }
+    return task;
+  }
+
+  private List<TaskDto> deriveCompletion(List<TaskDto> tasks, LocalDate today) {
+    if (derivedDailyCompletion) {
+      tasks.forEach(task -> taskDtoMapper.deriveCompletion(task, today));
+    }
+    return tasks;
   }
 
   public TaskDto createTask(Task task) {
-    User user = null;
-    if (task.getAssignedTo() != null && task.getAssignedTo().getId() != null) {
-      user = userRepo.findById(task.getAssignedTo().getId())
-          .orElseThrow(() -> new ResourceNotFoundException("Usuario asignado no encontrado"));
-      task.setAssignedTo(user);
+    TaskDto savedTask = transactionTemplate.execute(status -> {
+      if (task.getAssignedTo() != null && task.getAssignedTo().getId() != null) {
+        User user = userRepo.findById(task.getAssignedTo().getId())
+            .orElseThrow(() -> ResourceNotFoundException.ASSIGNED_USER);
+        task.setAssignedTo(user);
+      }
+      return taskDtoMapper.toDto(taskRepo.save(task));
+    });
+    changeVersions.bump(savedTask.getAssignedUserId());
+    userEvents.publish(savedTask.getAssignedUserId(), EventType.TASK_CREATED, () -> savedTask);
+    return savedTask;
+  }
+
+  /**
+   * Crea varias tareas de una vez. Si se indican usuarios, cada tarea se crea para cada uno de
+   * ellos; si no, cada tarea conserva su propia asignacion. Las filas se insertan con lotes JDBC
+   * (que el driver de MySQL reescribe como INSERT multi-fila) dentro de una sola transaccion, y los
+   * usuarios se validan contra el directorio en memoria, sin consultas.
+   *
+   * @param templates Tareas a crear
+   * @param assignedUserIds Usuarios a los que asignar cada tarea (opcional)
+   * @return Las tareas creadas como DTO, con sus IDs
+   */
+  public List<TaskDto> createTasks(List<Task> templates, List<Long> assignedUserIds) {
+    List<Long> userIds = assignedUserIds != null ? assignedUserIds.stream().distinct().toList()
+        : List.of();
+    List<TaskDto> rows = new ArrayList<>();
+    for (Task template : templates) {
+      if (userIds.isEmpty()) {
+        Long userId = template.getAssignedTo() != null ? template.getAssignedTo().getId() : null;
+        rows.add(newTaskRow(template, userId));
+      } else {
+        userIds.forEach(userId -> rows.add(newTaskRow(template, userId)));
+      }
+    }
+    if (rows.size() > batchMaxSize) {
+      throw new InvalidRequestException(
+          "No se pueden crear mas de " + batchMaxSize + " tareas por peticion");
+    }
+    for (TaskDto row : rows) {
+      if (row.getAssignedUserId() != null
+          && userDirectory.findById(row.getAssignedUserId()) == null) {
+        throw ResourceNotFoundException.ASSIGNED_USER;
+      }
+    }
+
+    transactionTemplate.executeWithoutResult(status -> {
+      for (int from = 0; from < rows.size(); from += batchInsertSize) {
+        insertTaskRows(rows.subList(from, Math.min(from + batchInsertSize, rows.size())));
+      }
+    });
+    cacheEvictor.tasksChanged();
+
+    rows.stream().map(TaskDto::getAssignedUserId).distinct().forEach(changeVersions::bump);
+    rows.forEach(task ->
+        userEvents.publish(task.getAssignedUserId(), EventType.TASK_CREATED, () -> task));
+    return rows;
+  }
+
+  private TaskDto newTaskRow(Task template, Long userId) {
+    return new TaskDto(null, template.getTitle(), template.getDescription(), false,
+        Boolean.TRUE.equals(template.isDaily()), null, template.getRewardPoints(), userId);
+  }
+
+  private void insertTaskRows(List<TaskDto> rows) {
+    KeyHolder keys = new GeneratedKeyHolder();
+    jdbcTemplate.batchUpdate(
+        con -> con.prepareStatement(INSERT_TASK, new String[] {"id"}),
+        new BatchPreparedStatementSetter() {
+          @Override
+          public void setValues(PreparedStatement ps, int i) throws SQLException {
+            TaskDto row = rows.get(i);
+            ps.setString(1, row.getTitle());
+            ps.setString(2, row.getDescription());
+            ps.setBoolean(3, row.isDaily());
+            ps.setInt(4, row.getRewardPoints());
+            ps.setObject(5, row.getAssignedUserId());
+          }
+
+          @Override
+          public int getBatchSize() {
+            return rows.size();
+          }
+        },
+        keys);
+    List<Map<String, Object>> generated = keys.getKeyList();
+    for (int i = 0; i < rows.size(); i++) {
+      rows.get(i).setId(((Number) generated.get(i).values().iterator().next()).longValue());
     }
-    return taskDtoMapper.toDto(taskRepo.save(task));
   }
 
   /**
@@ -82,56 +371,82 @@ public class TaskService {
    * @return La tarea completada como DTO
    */
   public TaskDto completeTask(Long taskId, java.time.LocalDate completionDate) {
-    Task task = taskRepo.findById(taskId)
-        .orElseThrow(() -> new ResourceNotFoundException("Tarea no encontrada"));
+    return completeTaskWithBalance(taskId, completionDate).getTask();
+  }
 
-    // Establecer la fecha de completado
-    java.time.LocalDate today = completionDate != null ? completionDate : java.time.LocalDate.now();
-    
-    // Verificar si la tarea es diaria y ya fue completada hoy
-    if (task.isDaily() && task.isCompleted() && task.getLastCompletedDate() != null) {
-      if (task.getLastCompletedDate().equals(today)) {
-        // Si es una tarea diaria ya completada en la misma fecha, no hacer nada
-        return taskDtoMapper.toDto(task);
-      }
-    }
-    
-    // Verifica si la tarea ya estaba completada antes de cambiar su estado
-    boolean wasAlreadyCompleted = task.isCompleted();
-    
-    try {
-      // Actualización directa con SQL
-      String formattedDate = today.toString();
-      
-      // Actualiza el estado y la fecha directamente en la base de datos
-      String sql = "UPDATE tasks SET is_completed = 1, last_completed_date = ? WHERE id = ?";
-      int updatedRows = jdbcTemplate.update(sql, formattedDate, taskId);
-      
-      if (updatedRows == 0) {
-        throw new RuntimeException("No se pudo actualizar el estado de completado de la tarea");
+  /**
+   * Completa una tarea en una sola transaccion. El UPDATE condicional solo afecta a la fila si la
+   * tarea sigue pendiente para esa fecha, de modo que de dos peticiones simultaneas solo una suma
+   * los puntos; la otra devuelve la tarea tal cual.
+   *
+   * @param taskId ID de la tarea a completar
+   * @param completionDate Fecha de completado (si es null, se usará la fecha del servidor)
+   * @return La tarea, si se otorgaron puntos y el saldo resultante del usuario asignado
+   */
+  public TaskCompletionResult completeTaskWithBalance(Long taskId,
+      java.time.LocalDate completionDate) {
+    TaskCompletionEvent event = new TaskCompletionEvent();
+    event.begin();
+    int statementsBefore = SqlStatementCounter.current();
+    java.time.LocalDate today = resolveDate(completionDate);
+    TaskCompletionResult result = transactionTemplate.execute(status -> {
+      int updatedRows = jdbcTemplate.update(
+          derivedDailyCompletion ? COMPLETE_IF_PENDING_DERIVED : COMPLETE_IF_PENDING,
+          today, taskId, today);
+      if (updatedRows > 0) {
+        cacheEvictor.tasksChanged();
       }
-      
-      // Obtener la tarea actualizada de la base de datos
-      task = taskRepo.findById(taskId)
-             .orElseThrow(() -> new ResourceNotFoundException("Tarea no encontrada"));
-      
-      // Manejar los puntos del usuario si la tarea no estaba completada previamente
-      User assignedUser = task.getAssignedTo();
-      if (assignedUser != null && !wasAlreadyCompleted) {
-        assignedUser.addPoints(task.getRewardPoints());
-        userRepo.save(assignedUser);
+      TaskDto task = taskRepo.findDtoById(taskId)
+          .orElseThrow(() -> ResourceNotFoundException.TASK);
+      Long assignedUserId = task.getAssignedUserId();
+      boolean completedNow = updatedRows > 0;
+      if (completedNow) {
+        pointsService.creditTaskCompletion(assignedUserId, task.getRewardPoints(), taskId, today);
       }
-    } catch (Exception e) {
-      throw e;
+      return new TaskCompletionResult(deriveCompletion(task, today), completedNow,
+          pointsService.getBalance(assignedUserId));
+    });
+
+    if (result.isCompletedNow()) {
+      Long assignedUserId = result.getTask().getAssignedUserId();
+      changeVersions.bump(assignedUserId);
+      userEvents.publish(assignedUserId, EventType.TASK_COMPLETED, result::getTask);
+      publishPoints(assignedUserId);
     }
-    
-    return taskDtoMapper.toDto(task);
+
+    event.end();
+    if (event.shouldCommit()) {
+      Long assignedUserId = result.getTask().getAssignedUserId();
+      event.taskId = taskId;
+      event.userId = assignedUserId != null ? assignedUserId : 0;
+      event.completedNow = result.isCompletedNow();
+      event.pointsAwarded = result.isCompletedNow() ? result.getTask().getRewardPoints() : 0;
+      event.rowsUpdated = result.isCompletedNow() ? 1 : 0;
+      event.statements = SqlStatementCounter.since(statementsBefore);
+      event.commit();
+    }
+    return result;
+  }
+
+  private void publishPoints(Long userId) {
+    if (userId == null) {
+      return;
+    }
+    userEvents.publish(userId, EventType.POINTS_CHANGED,
+        () -> pointsService.readWithPending(
+            () -> userRepo.findDtoById(userId).map(pointsService::withPending).orElse(null)));
   }
 
   public boolean deleteTask(Long taskId, boolean isAdmin) {
     if (isAdmin) {
-      if (taskRepo.existsById(taskId)) {
-        taskRepo.deleteById(taskId);
+      Optional<TaskDto> task = transactionTemplate.execute(status -> {
+        Optional<TaskDto> found = taskRepo.findDtoById(taskId);
+        found.ifPresent(dto -> taskRepo.deleteById(taskId));
+        return found;
+      });
+      if (task.isPresent()) {
+        changeVersions.bump(task.get().getAssignedUserId());
+        userEvents.publish(task.get().getAssignedUserId(), EventType.TASK_DELETED, task::get);
         return true;
       }
     }
@@ -145,71 +460,132 @@ public class TaskService {
    * @return El número de tareas que fueron reiniciadas
    */
   public int resetDailyTasks() {
-    List<Task> dailyTasks = taskRepo.findByIsDailyTrueAndIsCompletedTrue();
-    
-    for (Task task : dailyTasks) {
-      task.setCompleted(false);
+    return resetDailyTasksInChunks().getTotalRows();
+  }
+
+  /**
+   * Reinicia las tareas diarias completadas con sentencias UPDATE por rangos de id, sin cargar
+   * las entidades en memoria. Cada rango se ejecuta en su propia sentencia para que los bloqueos
+   * y el undo log de cada una se mantengan acotados al tamaño del bloque. En modo de completado
+   * derivado no hace nada.
+   *
+   * @return Informe con las filas y el tiempo de cada bloque
+   */
+  public DailyResetReport resetDailyTasksInChunks() {
+    DailyResetReport report = new DailyResetReport();
+    if (derivedDailyCompletion) {
+      // El estado diario se calcula al leer, no hay nada que reiniciar
+      return report;
     }
-    
-    if (!dailyTasks.isEmpty()) {
-      taskRepo.saveAll(dailyTasks);
+
+    DailyResetEvent event = new DailyResetEvent();
+    event.begin();
+
+    Map<String, Object> bounds = jdbcTemplate.queryForMap(
+        "SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM tasks "
+            + "WHERE is_daily = 1 AND is_completed = 1");
+    Number minId = (Number) bounds.get("min_id");
+    Number maxId = (Number) bounds.get("max_id");
+    if (minId == null || maxId == null) {
+      commitResetEvent(event, report);
+      return report;
+    }
+
+    String sql = "UPDATE tasks SET is_completed = 0 "
+        + "WHERE id >= ? AND id < ? AND is_daily = 1 AND is_completed = 1";
+
+    for (long from = minId.longValue(); from <= maxId.longValue(); from += dailyResetChunkSize) {
+      long to = from + dailyResetChunkSize;
+      long start = System.nanoTime();
+      int rows = jdbcTemplate.update(sql, from, to);
+      report.addChunk(from, to, rows, System.nanoTime() - start);
+    }
+
+    if (report.getTotalRows() > 0) {
+      cacheEvictor.tasksChanged();
+      changeVersions.bumpAll();
+    }
+
+    commitResetEvent(event, report);
+    return report;
+  }
+
+  private void commitResetEvent(DailyResetEvent event, DailyResetReport report) {
+    event.end();
+    if (event.shouldCommit()) {
+      event.rowsUpdated = report.getTotalRows();
+      event.chunks = report.getChunks().size();
+      // La consulta de limites mas un UPDATE por bloque
+      event.statements = 1 + report.getChunks().size();
+      event.commit();
     }
-    
-    return dailyTasks.size();
   }
   
   /**
    * Verifica y reinicia las tareas diarias completadas para un usuario específico
-   * si la fecha del servidor es diferente a la fecha del cliente.
+   * si la fecha del servidor es diferente a la fecha del cliente. En modo de completado derivado
+   * no hace falta reiniciar nada y devuelve 0.
    * 
    * @param userId ID del usuario
    * @param clientDate Fecha actual del cliente
    * @return Número de tareas reiniciadas
    */
   public int checkAndResetDailyTasksForUser(Long userId, java.time.LocalDate clientDate) {
+    if (derivedDailyCompletion) {
+      return 0;
+    }
+
+    DailyResetEvent event = new DailyResetEvent();
+    event.begin();
+    int statementsBefore = SqlStatementCounter.current();
     java.time.LocalDate serverDate = java.time.LocalDate.now();
     
-    // Imprimir fechas para depuración
-    System.out.println("Fecha del cliente: " + clientDate);
-    System.out.println("Fecha del servidor: " + serverDate);
+    logger.debug("Fecha del cliente: {}, fecha del servidor: {}", clientDate, serverDate);
     
+    int resetCount = transactionTemplate.execute(
+        status -> resetUserDailyTasks(userId, clientDate));
+    if (resetCount > 0) {
+      changeVersions.bump(userId);
+    }
+
+    event.end();
+    if (event.shouldCommit()) {
+      event.userId = userId;
+      event.rowsUpdated = resetCount;
+      event.statements = SqlStatementCounter.since(statementsBefore);
+      event.commit();
+    }
+    return resetCount;
+  }
+
+  private int resetUserDailyTasks(Long userId, java.time.LocalDate clientDate) {
     // Obtener todas las tareas diarias completadas del usuario
     List<Task> userDailyTasks = taskRepo.findByAssignedToIdAndIsDailyTrueAndIsCompletedTrue(userId);
-    System.out.println("Tareas diarias completadas encontradas: " + userDailyTasks.size());
+    logger.debug("Tareas diarias completadas encontradas: {}", userDailyTasks.size());
     
     int resetCount = 0;
     
     for (Task task : userDailyTasks) {
-      // Mostrar información de cada tarea
-      System.out.println("Tarea ID: " + task.getId() + 
-                         ", Título: " + task.getTitle() + 
-                         ", Completada: " + task.isCompleted() + 
-                         ", Última fecha completada: " + task.getLastCompletedDate());
-      
+      logger.debug("Tarea ID: {}, Completada: {}, Última fecha completada: {}", task.getId(),
+          task.isCompleted(), task.getLastCompletedDate());
+
       // Si la tarea no tiene fecha de completado, no deberíamos hacer nada
       if (task.getLastCompletedDate() == null) {
-        System.out.println("  - Sin fecha de completado, ignorando");
         continue;
       }
       
       // Si la última fecha de completado NO es igual a la fecha actual del cliente,
       // significa que fue completada en un día diferente y debe reiniciarse
       if (!task.getLastCompletedDate().equals(clientDate)) {
-        System.out.println("  - Fecha diferente: Reiniciando tarea");
         task.setCompleted(false);
         resetCount++;
-      } else {
-        System.out.println("  - Misma fecha: No se reinicia");
       }
     }
     
     if (resetCount > 0) {
-      System.out.println("Guardando " + resetCount + " tareas reiniciadas");
+      logger.debug("Guardando {} tareas reiniciadas", resetCount);
       taskRepo.saveAll(userDailyTasks);
-    } else {
-      System.out.println("No se reinició ninguna tarea");
     }
-    
     return resetCount;
   }
 
@@ -220,20 +596,28 @@ public class TaskService {
    * @return La tarea actualizada
    */
   public Task updateTask(Task task) {
-    // Verificar que la tarea existe
-    if (!taskRepo.existsById(task.getId())) {
-      throw new ResourceNotFoundException("Tarea con ID " + task.getId() + " no encontrada");
-    }
-    
-    // Asegurarnos de no perder la asociación con el usuario
-    if (task.getAssignedTo() == null) {
-      Task existingTask = taskRepo.findById(task.getId()).get();
-      if (existingTask.getAssignedTo() != null) {
+    List<Long> previousUserId = new ArrayList<>(1);
+    Task savedTask = transactionTemplate.execute(status -> {
+      // Verificar que la tarea existe
+      Task existingTask = taskRepo.findById(task.getId())
+          .orElseThrow(() -> new ResourceNotFoundException(
+              "Tarea con ID " + task.getId() + " no encontrada"));
+
+      // Asegurarnos de no perder la asociación con el usuario
+      previousUserId.add(
+          existingTask.getAssignedTo() != null ? existingTask.getAssignedTo().getId() : null);
+      if (task.getAssignedTo() == null && previousUserId.get(0) != null) {
         task.setAssignedTo(existingTask.getAssignedTo());
       }
+
+      // Guardar la tarea
+      return taskRepo.save(task);
+    });
+    changeVersions.bump(previousUserId.get(0));
+    if (savedTask.getAssignedTo() != null
+        && !savedTask.getAssignedTo().getId().equals(previousUserId.get(0))) {
+      changeVersions.bump(savedTask.getAssignedTo().getId());
     }
-    
-    // Guardar la tarea
-    return taskRepo.save(task);
+    return savedTask;
   }
 }
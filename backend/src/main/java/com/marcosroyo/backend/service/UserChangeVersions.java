@@ -0,0 +1,60 @@
+package com.marcosroyo.backend.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+
+/**
+ * Versiones de cambio en memoria: cada escritura que afecta a un usuario incrementa su version y
+ * la version global (que cubre las vistas de administrador). Los controladores las usan como
+ * ETag para responder 304 sin consultar la base de datos.
+ */
+@Component
+public class UserChangeVersions {
+
+  // Distingue los ETag de cada arranque, ya que las versiones empiezan de cero
+  private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+  private final AtomicLong global = new AtomicLong();
+  private final AtomicLong generation = new AtomicLong();
+  private final Map<Long, AtomicLong> byUser = new ConcurrentHashMap<>();
+
+  /**
+   * Registra un cambio en los datos del usuario (null si el cambio no tiene usuario asignado).
+   */
+  public void bump(Long userId) {
+    if (userId != null) {
+      byUser.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+    }
+    global.incrementAndGet();
+  }
+
+  /**
+   * Registra un cambio que puede afectar a cualquier usuario, como el reinicio de tareas diarias.
+   */
+  public void bumpAll() {
+    generation.incrementAndGet();
+    global.incrementAndGet();
+  }
+
+  /**
+   * ETag de los datos de un usuario, o de todos si userId es null.
+   *
+   * @param variant Parte adicional de la que depende la respuesta (por ejemplo la fecha), o null
+   */
+  public String etag(Long userId, String variant) {
+    StringBuilder etag = new StringBuilder(48).append('"').append(epoch)
+        .append('.').append(generation.get());
+    if (userId == null) {
+      etag.append(".a.").append(global.get());
+    } else {
+      AtomicLong version = byUser.get(userId);
+      etag.append(".u").append(userId).append('.').append(version != null ? version.get() : 0);
+    }
+    if (variant != null) {
+      etag.append('.').append(variant);
+    }
+    return etag.append('"').toString();
+  }
+}
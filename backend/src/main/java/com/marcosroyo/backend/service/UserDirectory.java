@@ -0,0 +1,124 @@
+package com.marcosroyo.backend.service;
+
+import com.marcosroyo.backend.model.User;
+import com.marcosroyo.backend.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Indice en memoria de los usuarios por nombre de usuario. Se carga al arrancar y
+ * {@link UserService} lo mantiene al crear, actualizar y borrar usuarios, de modo que el login,
+ * la comprobacion de nombres repetidos y la de administrador unico no consultan la base de datos.
+ */
+@Component
+public class UserDirectory {
+
+  @Autowired
+  private UserRepository userRepo;
+
+  private final Map<String, Entry> byUsername = new ConcurrentHashMap<>();
+  private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+  private final Set<Long> adminIds = ConcurrentHashMap.newKeySet();
+
+  @PostConstruct
+  public void load() {
+    byUsername.clear();
+    byId.clear();
+    adminIds.clear();
+    userRepo.findAll().forEach(this::put);
+  }
+
+  public Entry find(String username) {
+    return username != null ? byUsername.get(username) : null;
+  }
+
+  public Entry findById(Long id) {
+    return id != null ? byId.get(id) : null;
+  }
+
+  public boolean isEmpty() {
+    return byId.isEmpty();
+  }
+
+  public int size() {
+    return byId.size();
+  }
+
+  /**
+   * Indica si el nombre de usuario pertenece a un usuario distinto del indicado (null para
+   * cualquier usuario).
+   */
+  public boolean isUsernameTaken(String username, Long exceptId) {
+    Entry entry = find(username);
+    return entry != null && !entry.getId().equals(exceptId);
+  }
+
+  /**
+   * Indica si existe un administrador distinto del usuario indicado.
+   */
+  public boolean hasOtherAdmin(Long exceptId) {
+    for (Long adminId : adminIds) {
+      if (!adminId.equals(exceptId)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public void put(User user) {
+    Entry entry = new Entry(user.getId(), user.getUsername(), user.isAdmin(), user.getPassword());
+    Entry previous = byId.put(entry.getId(), entry);
+    if (previous != null && !previous.getUsername().equals(entry.getUsername())) {
+      byUsername.remove(previous.getUsername(), previous);
+    }
+    byUsername.put(entry.getUsername(), entry);
+    if (entry.isAdmin()) {
+      adminIds.add(entry.getId());
+    } else {
+      adminIds.remove(entry.getId());
+    }
+  }
+
+  public void remove(Long id) {
+    Entry previous = byId.remove(id);
+    if (previous != null) {
+      byUsername.remove(previous.getUsername(), previous);
+    }
+    adminIds.remove(id);
+  }
+
+  public static class Entry {
+
+    private final Long id;
+    private final String username;
+    private final boolean admin;
+    private final String password;
+
+    public Entry(Long id, String username, boolean admin, String password) {
+      this.id = id;
+      this.username = username;
+      this.admin = admin;
+      this.password = password;
+    }
+
+    public Long getId() {
+      return id;
+    }
+
+    public String getUsername() {
+      return username;
+    }
+
+    public boolean isAdmin() {
+      return admin;
+    }
+
+    public String getPassword() {
+      return password;
+    }
+  }
+}
@@ -0,0 +1,140 @@
+package com.marcosroyo.backend.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Canal de eventos por usuario (server-sent events) para que los dispositivos se enteren de los
+ * cambios sin sondear. Las suscripciones se guardan en listas copy-on-write, de modo que publicar
+ * no bloquea, y el envio se hace en hilos virtuales para no retrasar la peticion que lo origina,
+ * encadenado por usuario para que cada uno reciba sus eventos en el orden en que se publicaron.
+ * Las conexiones inactivas no ocupan hilos.
+ */
+@Component
+public class UserEventStream {
+
+  public enum EventType {
+    TASK_CREATED,
+    TASK_COMPLETED,
+    TASK_DELETED,
+    REWARD_REDEEMED,
+    POINTS_CHANGED
+  }
+
+  private static final Logger logger = LoggerFactory.getLogger(UserEventStream.class);
+
+  private static final Long NO_USER = 0L;
+
+  private final Map<Long, List<SseEmitter>> byUser = new ConcurrentHashMap<>();
+  private final List<SseEmitter> admins = new CopyOnWriteArrayList<>();
+  private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+  // Ultimo envio pendiente de cada usuario; el siguiente empieza cuando acaba. Los eventos sin
+  // usuario (solo para administradores) comparten la clave NO_USER.
+  private final Map<Long, CompletableFuture<Void>> pending = new ConcurrentHashMap<>();
+
+  @Value("${events.sse.timeout-ms:1800000}")
+  private long timeoutMs;
+
+  /**
+   * Abre un canal para un usuario, o para todos los usuarios si es administrador.
+   */
+  public SseEmitter subscribe(Long userId, boolean isAdmin) {
+    SseEmitter emitter = new SseEmitter(timeoutMs);
+    List<SseEmitter> subscribers;
+    if (isAdmin) {
+      subscribers = admins;
+      subscribers.add(emitter);
+    } else {
+      // Se añade dentro de compute para que heartbeat no quite la lista mientras tanto
+      subscribers = byUser.compute(userId, (id, list) -> {
+        List<SseEmitter> target = list != null ? list : new CopyOnWriteArrayList<>();
+        target.add(emitter);
+        return target;
+      });
+    }
+    Runnable unsubscribe = () -> subscribers.remove(emitter);
+    emitter.onCompletion(unsubscribe);
+    emitter.onTimeout(unsubscribe);
+    emitter.onError(e -> unsubscribe.run());
+    return emitter;
+  }
+
+  public boolean hasSubscribers(Long userId) {
+    if (!admins.isEmpty()) {
+      return true;
+    }
+    List<SseEmitter> subscribers = userId != null ? byUser.get(userId) : null;
+    return subscribers != null && !subscribers.isEmpty();
+  }
+
+  /**
+   * Publica un evento para el usuario y los administradores conectados. El contenido solo se
+   * calcula, una vez y fuera del hilo de la peticion, si hay alguien escuchando.
+   */
+  public void publish(Long userId, EventType type, Supplier<?> payload) {
+    if (!hasSubscribers(userId)) {
+      return;
+    }
+    Long key = userId != null ? userId : NO_USER;
+    CompletableFuture<Void> next = pending.compute(key, (id, tail) ->
+        (tail != null ? tail : CompletableFuture.<Void>completedFuture(null))
+            .thenRunAsync(() -> deliver(userId, type, payload), sender));
+    next.whenComplete((ignored, error) -> pending.remove(key, next));
+  }
+
+  private void deliver(Long userId, EventType type, Supplier<?> payload) {
+    try {
+      Object data = payload.get();
+      if (data == null) {
+        return;
+      }
+      SseEmitter.SseEventBuilder event = SseEmitter.event().name(type.name()).data(data);
+      List<SseEmitter> subscribers = userId != null ? byUser.get(userId) : null;
+      if (subscribers != null) {
+        subscribers.forEach(emitter -> send(emitter, event, subscribers));
+      }
+      admins.forEach(emitter -> send(emitter, event, admins));
+    } catch (RuntimeException e) {
+      // Un fallo no debe cortar la cadena de envios del usuario
+      logger.warn("Could not publish {} event for user {}", type, userId, e);
+    }
+  }
+
+  /**
+   * Comentario periodico que mantiene vivas las conexiones y descarta las que ya se cerraron.
+   */
+  @Scheduled(fixedDelayString = "${events.sse.heartbeat-ms:25000}")
+  public void heartbeat() {
+    SseEmitter.SseEventBuilder ping = SseEmitter.event().comment("ping");
+    byUser.values().forEach(subscribers ->
+        subscribers.forEach(emitter -> send(emitter, ping, subscribers)));
+    admins.forEach(emitter -> send(emitter, ping, admins));
+    // Solo se quita una lista si sigue vacia en el momento de quitarla (ver subscribe)
+    byUser.keySet().forEach(userId ->
+        byUser.computeIfPresent(userId, (id, list) -> list.isEmpty() ? null : list));
+  }
+
+  private void send(SseEmitter emitter, SseEmitter.SseEventBuilder event,
+      List<SseEmitter> subscribers) {
+    try {
+      emitter.send(event);
+    } catch (IOException | IllegalStateException e) {
+      logger.debug("Dropping closed event stream: {}", e.getMessage());
+      subscribers.remove(emitter);
+    }
+  }
+}
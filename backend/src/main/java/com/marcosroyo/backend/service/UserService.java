@@ -1,104 +1,156 @@
 package com.marcosroyo.backend.service;
 
+import com.marcosroyo.backend.dto.KeysetPage;
 import com.marcosroyo.backend.dto.UserDto;
 import com.marcosroyo.backend.dto.mapper.UserDtoMapper;
+import com.marcosroyo.backend.exceptions.InvalidRequestException;
+import com.marcosroyo.backend.jfr.LoginEvent;
+import com.marcosroyo.backend.model.PointsLedgerEntry.Reason;
 import com.marcosroyo.backend.model.User;
 import com.marcosroyo.backend.repository.UserRepository;
+import com.marcosroyo.backend.service.UserEventStream.EventType;
+import io.micrometer.core.annotation.Timed;
 import java.util.List;
 import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
+@Timed("service.method")
 public class UserService {
 
+  private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+
   @Autowired
   private UserDtoMapper userDtoMapper;
 
   @Autowired
   private UserRepository userRepo;
 
+  @Autowired
+  private UserDirectory userDirectory;
+
+  @Autowired
+  private PointsService pointsService;
+
+  @Autowired
+  private UserChangeVersions changeVersions;
+
+  @Autowired
+  private UserEventStream userEvents;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
   public List<UserDto> getAllUsers() {
-    return userRepo.findAll()
-        .stream()
-        .map(userDtoMapper::toDto)
-        .toList();
+    return pointsService.readWithPending(
+        () -> userRepo.findAllDtos().stream().map(pointsService::withPending).toList());
+  }
+
+  public KeysetPage<UserDto> getUsersPage(Long after, Integer limit) {
+    int size = KeysetPage.clampLimit(limit);
+    long cursor = after != null ? after : 0L;
+    List<UserDto> users = pointsService.readWithPending(
+        () -> userRepo.findDtosAfter(cursor, Limit.of(size + 1)).stream()
+            .map(pointsService::withPending)
+            .toList());
+    return KeysetPage.of(users, size, UserDto::getId);
   }
 
   public Optional<UserDto> getUserById(Long id) {
-    return userRepo.findById(id)
-        .map(userDtoMapper::toDto);
+    return pointsService.readWithPending(
+        () -> userRepo.findDtoById(id).map(pointsService::withPending));
   }
 
   public UserDto createUser(User user) {
-    if (userRepo.findByUsername(user.getUsername()).isPresent()) {
-      throw new IllegalArgumentException("El nombre de usuario ya esta en uso");
+    if (userDirectory.isUsernameTaken(user.getUsername(), null)) {
+      throw new InvalidRequestException("El nombre de usuario ya esta en uso");
     }
 
-    boolean nUsers = userRepo.count() == 0;
+    boolean nUsers = userDirectory.isEmpty();
 
     if (nUsers) {      // Primer usuario es admin, tendra password
       if (user.getPassword() == null || user.getPassword().isEmpty()) {
-        throw new IllegalArgumentException("El primer usuario debe tener contraseña.");
+        throw new InvalidRequestException("El primer usuario debe tener contraseña.");
       }
       user.setAdmin(true);
     } else { // El resto de usuarios no seran admin nunca
       if (user.isAdmin()) {
-        throw new IllegalArgumentException("Solo el primer usuario puede ser administrador");
+        throw new InvalidRequestException("Solo el primer usuario puede ser administrador");
       }
       if (user.getPassword() != null && !user.getPassword().isEmpty()) {
-        throw new IllegalArgumentException(
+        throw new InvalidRequestException(
             "Los usuarios no administradores no deben tener contraseña.");
       }
       user.setAdmin(false);
       user.setPassword(null);
     }
 
-    System.out.println("Usuario guardado: " + user.getUsername() + " con admin " + user.isAdmin());
-    return userDtoMapper.toDto(userRepo.save(user));
+    // Los usuarios empiezan sin puntos, que solo cambian a traves del libro de puntos
+    user.setPoints(0);
+
+    logger.debug("Usuario guardado: {} con admin {}", user.getUsername(), user.isAdmin());
+    User savedUser = userRepo.save(user);
+    userDirectory.put(savedUser);
+    changeVersions.bump(savedUser.getId());
+    return userDtoMapper.toDto(savedUser);
   }
 
   public boolean login(String username, String password) {
-    Optional<User> userOpt = userRepo.findAll()
-        .stream()
-        .filter(u -> u.getUsername().equals(username))
-        .findFirst();
+    LoginEvent event = new LoginEvent();
+    event.begin();
+    UserDirectory.Entry user = userDirectory.find(username);
+    boolean success = false;
 
-    if (userOpt.isPresent()) {
-      User user = userOpt.get();
+    if (user != null) {
       if (user.isAdmin()) {
-        return user.getPassword() != null && user.getPassword().equals(password);
+        success = user.getPassword() != null && user.getPassword().equals(password);
       } else {
         // Si no es admin, logea sin contraseña, por lo que devuelve true automaticamente
-        return true;
+        success = true;
       }
     }
-    return false;
+
+    event.end();
+    if (event.shouldCommit()) {
+      event.userId = user != null ? user.getId() : 0;
+      event.admin = user != null && user.isAdmin();
+      event.success = success;
+      event.commit();
+    }
+    return success;
   }
 
   public UserDto updateUser(Long id, User updatedUser) {
-    Optional<User> existingUserOpt = userRepo.findById(id);
-    if (existingUserOpt.isEmpty()) {
+    // Lectura y guardado en una transaccion: sin open-in-view la entidad se quedaria separada y
+    // save la volveria a leer para fusionarla
+    User savedUser = transactionTemplate.execute(status -> userRepo.findById(id)
+        .map(existingUser -> applyUpdate(existingUser, updatedUser))
+        .orElse(null));
+    if (savedUser == null) {
       return null;
     }
+    userDirectory.put(savedUser);
+    changeVersions.bump(id);
+    return userDtoMapper.toDto(savedUser);  // En todos los métodos que guardan
+  }
 
-    User existingUser = existingUserOpt.get();
+  private User applyUpdate(User existingUser, User updatedUser) {
+    Long id = existingUser.getId();
 
-    User existingUserWithSameUsername = userRepo.findByUsername(updatedUser.getUsername())
-        .orElse(null);
-    if (existingUserWithSameUsername != null && !existingUserWithSameUsername.getId().equals(id)) {
-      throw new IllegalArgumentException("El nombre de usuario ya está en uso");
+    if (userDirectory.isUsernameTaken(updatedUser.getUsername(), id)) {
+      throw new InvalidRequestException("El nombre de usuario ya está en uso");
     }
 
     boolean isBecomingAdmin = updatedUser.isAdmin() && !existingUser.isAdmin();
 
     if (isBecomingAdmin) {
-      boolean adminExists = userRepo.findAll()
-          .stream()
-          .anyMatch(u -> u.isAdmin() && !u.getId()
-              .equals(id));
-      if (adminExists) {
-        throw new IllegalArgumentException(
+      if (userDirectory.hasOtherAdmin(id)) {
+        throw new InvalidRequestException(
             "Ya existe un administrador. No se puede dar privilegio de administrador a otro usuario");
       }
     }
@@ -106,7 +158,7 @@ public class UserService {
     // Solo los admins tienen psswd
     if (!updatedUser.isAdmin() && updatedUser.getPassword() != null && !updatedUser.getPassword()
         .isEmpty()) {
-      throw new IllegalArgumentException("Solo los administradores pueden tener contraseña");
+      throw new InvalidRequestException("Solo los administradores pueden tener contraseña");
     }
 
     // Actualizamos datos basicos
@@ -122,52 +174,64 @@ public class UserService {
 
     // Los puntos se modifican y actualizan en metodos especificos
 
-    return userDtoMapper.toDto(userRepo.save(existingUser));  // En todos los métodos que guardan
+    return userRepo.save(existingUser);
   }
 
   public UserDto addPointsToUser(Long id, int points) {
-    Optional<User> userOpt = userRepo.findById(id);
-    if (userOpt.isEmpty()) {
+    UserDirectory.Entry user = userDirectory.findById(id);
+    if (user == null) {
       return null;
     }
 
-    User user = userOpt.get();
-
     // Solo añadimos puntos a usuarios no administradores
     if (!user.isAdmin()) {
-      user.addPoints(points);
-      return userDtoMapper.toDto(userRepo.save(user));  // En todos los métodos que guardan
+      pointsService.credit(id, points, Reason.MANUAL_ADJUSTMENT, null);
+      changeVersions.bump(id);
+      return publishPoints(id);
     } else {
-      throw new IllegalArgumentException("Los administradores no pueden acumular puntos");
+      throw new InvalidRequestException("Los administradores no pueden acumular puntos");
     }
   }
 
   public UserDto subtractPointsFromUser(Long id, int points) {
-    Optional<User> userOpt = userRepo.findById(id);
-    if (userOpt.isEmpty()) {
+    UserDirectory.Entry user = userDirectory.findById(id);
+    if (user == null) {
       return null;
     }
 
-    User user = userOpt.get();
-
     // Solo restamos puntos a usuarios no administradores
     if (!user.isAdmin()) {
-      // Verificar que tenga suficientes puntos
-      if (user.getPoints() < points) {
-        throw new IllegalArgumentException("El usuario no tiene suficientes puntos para restar");
+      pointsService.settlePending();
+      // El descuento solo se aplica si el saldo lo cubre
+      if (!pointsService.debit(id, points, Reason.MANUAL_ADJUSTMENT, null)) {
+        throw new InvalidRequestException("El usuario no tiene suficientes puntos para restar");
       }
-      user.substractPoints(points);
-      return userDtoMapper.toDto(userRepo.save(user));
+      changeVersions.bump(id);
+      return publishPoints(id);
     } else {
-      throw new IllegalArgumentException("Los administradores no pueden tener puntos");
+      throw new InvalidRequestException("Los administradores no pueden tener puntos");
     }
   }
 
+  private UserDto publishPoints(Long id) {
+    UserDto user = getUserById(id).orElse(null);
+    userEvents.publish(id, EventType.POINTS_CHANGED, () -> user);
+    return user;
+  }
+
   public boolean deleteUser(Long userId, boolean isAdmin) {
     if (isAdmin) {
-      if (userRepo.existsById(userId)) {
+      boolean deleted = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+        if (!userRepo.existsById(userId)) {
+          return false;
+        }
         userRepo.deleteById(userId);
         return true;
+      }));
+      if (deleted) {
+        userDirectory.remove(userId);
+        changeVersions.bump(userId);
+        return true;
       }
     }
     return false;
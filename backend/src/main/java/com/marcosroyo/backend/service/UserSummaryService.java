@@ -0,0 +1,57 @@
+package com.marcosroyo.backend.service;
+
+import com.marcosroyo.backend.dto.RewardDto;
+import com.marcosroyo.backend.dto.TaskDto;
+import com.marcosroyo.backend.dto.UserDto;
+import com.marcosroyo.backend.dto.UserSummaryDto;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Resumen de la pantalla de inicio de un usuario en una sola llamada: el usuario, sus tareas y sus
+ * recompensas se leen con tres consultas seguidas en una transaccion de solo lectura, y las listas
+ * de pendientes/completadas y disponibles/canjeadas se separan en memoria. Asi la peticion ocupa
+ * una sola conexion del pool (y un solo permiso del bulkhead) y las tres lecturas ven la misma
+ * instantanea.
+ */
+@Service
+public class UserSummaryService {
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private TaskService taskService;
+
+  @Autowired
+  private RewardService rewardService;
+
+  @Transactional(readOnly = true)
+  public Optional<UserSummaryDto> getSummary(Long userId, LocalDate currentDate) {
+    Optional<UserDto> user = userService.getUserById(userId);
+    if (user.isEmpty()) {
+      return Optional.empty();
+    }
+
+    Map<Boolean, List<TaskDto>> tasksByCompletion =
+        taskService.getAllTasks(userId, false, currentDate).stream()
+            .collect(Collectors.partitioningBy(TaskDto::isCompleted));
+    Map<Boolean, List<RewardDto>> rewardsByRedemption =
+        rewardService.getAllRewards(userId, false).stream()
+            .collect(Collectors.partitioningBy(RewardDto::isRedeemed));
+
+    return Optional.of(new UserSummaryDto(
+        user.get(),
+        tasksByCompletion.get(false),
+        tasksByCompletion.get(true),
+        rewardsByRedemption.get(false),
+        rewardsByRedemption.get(true)
+    ));
+  }
+}
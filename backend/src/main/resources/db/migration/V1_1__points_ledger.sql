@@ -0,0 +1,13 @@
+-- Libro de movimientos de puntos. IF NOT EXISTS porque las instalaciones que llegaron a arrancar
+-- con ddl-auto=update ya pueden tenerla (con reason como ENUM, que V2 normaliza).
+CREATE TABLE IF NOT EXISTS points_ledger (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  user_id BIGINT NOT NULL,
+  delta INT NOT NULL,
+  reason VARCHAR(32) NOT NULL,
+  reference_id BIGINT,
+  created_at DATETIME(6) NOT NULL,
+  PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_points_ledger_user_id ON points_ledger (user_id, id);
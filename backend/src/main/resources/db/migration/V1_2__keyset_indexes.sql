@@ -0,0 +1,8 @@
+-- Indices de la paginacion por cursor: cada filtro termina en id para recorrer el indice en orden.
+CREATE INDEX idx_tasks_user_id_id ON tasks (user_id, id);
+CREATE INDEX idx_tasks_is_completed_id ON tasks (is_completed, id);
+CREATE INDEX idx_tasks_user_id_is_completed_id ON tasks (user_id, is_completed, id);
+
+CREATE INDEX idx_rewards_user_id_id ON rewards (user_id, id);
+CREATE INDEX idx_rewards_is_redeemed_id ON rewards (is_redeemed, id);
+CREATE INDEX idx_rewards_user_id_is_redeemed_id ON rewards (user_id, is_redeemed, id);
@@ -0,0 +1,38 @@
+-- Esquema previo a Flyway, tal y como lo dejaba spring.jpa.hibernate.ddl-auto=update: solo users,
+-- tasks y rewards. Las bases de datos que ya existian se marcan con esta version
+-- (spring.flyway.baseline-version=1) y no lo ejecutan, asi que todo lo posterior va en
+-- migraciones nuevas.
+
+CREATE TABLE users (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  username VARCHAR(255) NOT NULL,
+  password VARCHAR(255),
+  is_admin BIT NOT NULL,
+  points INT NOT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+CREATE TABLE tasks (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  title VARCHAR(255),
+  description VARCHAR(255),
+  is_completed BIT NOT NULL,
+  is_daily BIT,
+  last_completed_date DATE,
+  reward_points INT NOT NULL,
+  user_id BIGINT,
+  PRIMARY KEY (id),
+  CONSTRAINT fk_tasks_user_id FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE rewards (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  title VARCHAR(255),
+  description VARCHAR(255),
+  price INT NOT NULL,
+  is_redeemed BIT NOT NULL,
+  user_id BIGINT,
+  PRIMARY KEY (id),
+  CONSTRAINT fk_rewards_user_id FOREIGN KEY (user_id) REFERENCES users (id)
+);
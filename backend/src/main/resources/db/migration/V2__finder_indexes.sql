@@ -0,0 +1,14 @@
+-- Indices para las consultas que aun recorrian la tabla entera. Las busquedas por usuario y
+-- estado (user_id, is_completed) y (user_id, is_redeemed) ya las cubren los indices de V1_2, que
+-- terminan en id para la paginacion por cursor.
+
+-- findByIsDailyTrueAndIsCompletedTrue y el reinicio diario por tramos
+CREATE INDEX idx_tasks_is_daily_is_completed_lcd
+  ON tasks (is_daily, is_completed, last_completed_date);
+
+-- findByAssignedToIdAndIsDailyTrueAndIsCompletedTrue (reinicio diario de un usuario)
+CREATE INDEX idx_tasks_user_id_is_daily_is_completed
+  ON tasks (user_id, is_daily, is_completed);
+
+-- Hibernate creaba reason como ENUM en MySQL; la entidad lo mapea ahora como VARCHAR
+ALTER TABLE points_ledger MODIFY reason VARCHAR(32) NOT NULL;
@@ -0,0 +1,8 @@
+-- Segmentos del diario de puntos (escritura diferida) ya aplicados a users y points_ledger. Se
+-- inserta en la misma transaccion que los aplica, asi que al recuperar el diario tras una caida
+-- un segmento que ya figura aqui no se vuelve a aplicar.
+CREATE TABLE points_journal_segments (
+  segment_id BIGINT NOT NULL,
+  applied_at DATETIME(6) NOT NULL,
+  PRIMARY KEY (segment_id)
+);
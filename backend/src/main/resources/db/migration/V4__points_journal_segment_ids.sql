@@ -0,0 +1,3 @@
+-- Los segmentos del diario se identifican por la instancia y un UUID en lugar de un numero
+-- correlativo, que dos instancias sobre la misma base de datos podian repetir.
+ALTER TABLE points_journal_segments MODIFY segment_id VARCHAR(100) NOT NULL;
@@ -0,0 +1,135 @@
+package com.marcosroyo.backend.benchmark;
+
+import com.marcosroyo.backend.controller.ApiExceptionHandler;
+import com.marcosroyo.backend.dto.ApiError;
+import com.marcosroyo.backend.exceptions.InvalidRequestException;
+import com.marcosroyo.backend.exceptions.ResourceNotFoundException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Coste de responder a un recurso inexistente (404) o a una peticion no valida (400). Compara el
+ * esquema anterior (excepcion con traza capturada en el controlador y cuerpo Map creado en cada
+ * respuesta) con las excepciones sin traza y los cuerpos preasignados de {@link ApiExceptionHandler}.
+ * La profundidad simula la pila de Tomcat, los filtros y los proxies de Spring (por encima de 100
+ * marcos en una peticion real), que es lo que se recorre al rellenar la traza. Los benchmarks
+ * {@code mvc*} miden la peticion completa sobre MockMvc.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+  @Param({"20", "150"})
+  private int depth;
+
+  private final ApiExceptionHandler handler = new ApiExceptionHandler();
+  private MockMvc mvc;
+
+  @Setup
+  public void setUp() {
+    mvc = MockMvcBuilders.standaloneSetup(new StubController())
+        .setControllerAdvice(handler)
+        .build();
+  }
+
+  @Benchmark
+  public ResponseEntity<Object> legacyNotFound() {
+    try {
+      return ResponseEntity.ok(throwAt(depth,
+          () -> new RuntimeException("Tarea no encontrada")));
+    } catch (Exception e) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  @Benchmark
+  public ResponseEntity<ApiError> stacklessNotFound() {
+    try {
+      throwAt(depth, () -> ResourceNotFoundException.TASK);
+      return ResponseEntity.ok().build();
+    } catch (ResourceNotFoundException e) {
+      return handler.handleNotFound(e);
+    }
+  }
+
+  @Benchmark
+  public ResponseEntity<Object> legacyValidation() {
+    try {
+      return ResponseEntity.ok(throwAt(depth,
+          () -> new IllegalArgumentException("El nombre de usuario ya esta en uso")));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(e.getMessage());
+    }
+  }
+
+  @Benchmark
+  public ResponseEntity<ApiError> stacklessValidation() {
+    try {
+      throwAt(depth, () -> new InvalidRequestException("El nombre de usuario ya esta en uso"));
+      return ResponseEntity.ok().build();
+    } catch (InvalidRequestException e) {
+      return handler.handleInvalidRequest(e);
+    }
+  }
+
+  @Benchmark
+  public MvcResult mvcLegacyNotFound() throws Exception {
+    return mvc.perform(MockMvcRequestBuilders.get("/legacy/{depth}", depth)).andReturn();
+  }
+
+  @Benchmark
+  public MvcResult mvcStacklessNotFound() throws Exception {
+    return mvc.perform(MockMvcRequestBuilders.get("/stackless/{depth}", depth)).andReturn();
+  }
+
+  private static Object throwAt(int depth, Supplier<RuntimeException> exception) {
+    if (depth <= 0) {
+      throw exception.get();
+    }
+    return throwAt(depth - 1, exception);
+  }
+
+  @RestController
+  static class StubController {
+
+    @GetMapping("/legacy/{depth}")
+    public ResponseEntity<Object> legacy(@PathVariable int depth) {
+      try {
+        return ResponseEntity.ok(throwAt(depth,
+            () -> new RuntimeException("Tarea no encontrada")));
+      } catch (Exception e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+      }
+    }
+
+    @GetMapping("/stackless/{depth}")
+    public ResponseEntity<Object> stackless(@PathVariable int depth) {
+      return ResponseEntity.ok(throwAt(depth, () -> ResourceNotFoundException.TASK));
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package com.marcosroyo.backend.benchmark;
+
+import com.marcosroyo.backend.BackendApplication;
+import com.marcosroyo.backend.dto.UserDto;
+import com.marcosroyo.backend.model.Task;
+import com.marcosroyo.backend.model.User;
+import com.marcosroyo.backend.service.TaskService;
+import com.marcosroyo.backend.service.UserService;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Compara la capa web sobre el pool de hilos de Tomcat con la ejecucion sobre hilos virtuales
+ * (con su bulkhead) bajo muchos clientes concurrentes. Arranca la aplicacion contra H2 en un
+ * puerto libre; el numero de clientes se ajusta con -t.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(256)
+@Fork(1)
+public class ExecutionModeBenchmark {
+
+  @Param({"false", "true"})
+  private boolean virtualThreads;
+
+  private ConfigurableApplicationContext context;
+  private HttpClient client;
+  private String baseUrl;
+  private final List<Long> childIds = new ArrayList<>();
+
+  @Setup
+  public void setUp() {
+    context = new SpringApplicationBuilder(BackendApplication.class)
+        .properties("server.port=0", "spring.threads.virtual.enabled=" + virtualThreads,
+            "logging.level.root=WARN")
+        .run();
+    baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    UserService userService = context.getBean(UserService.class);
+    User admin = new User("parent");
+    admin.setPassword("secret");
+    userService.createUser(admin);
+    List<Task> chores = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      Task task = new Task();
+      task.setTitle("chore " + i);
+      task.setIsDaily(i % 2 == 0);
+      task.setRewardPoints(5);
+      chores.add(task);
+    }
+    for (int i = 0; i < 50; i++) {
+      UserDto child = userService.createUser(new User("child" + i));
+      childIds.add(child.getId());
+    }
+    context.getBean(TaskService.class).createTasks(chores, childIds);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public int getTasks() throws IOException, InterruptedException {
+    return send(HttpRequest.newBuilder(URI.create(baseUrl + "/tasks?isAdmin=false&userId="
+        + randomChild())).GET().build());
+  }
+
+  @Benchmark
+  public int getSummary() throws IOException, InterruptedException {
+    return send(HttpRequest.newBuilder(URI.create(baseUrl + "/users/" + randomChild()
+        + "/summary")).GET().build());
+  }
+
+  private Long randomChild() {
+    return childIds.get(ThreadLocalRandom.current().nextInt(childIds.size()));
+  }
+
+  private int send(HttpRequest request) throws IOException, InterruptedException {
+    return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+  }
+}
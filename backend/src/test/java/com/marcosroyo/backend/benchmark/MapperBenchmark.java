@@ -0,0 +1,100 @@
+package com.marcosroyo.backend.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marcosroyo.backend.dto.RewardDto;
+import com.marcosroyo.backend.dto.TaskDto;
+import com.marcosroyo.backend.dto.mapper.RewardDtoMapper;
+import com.marcosroyo.backend.dto.mapper.TaskDtoMapper;
+import com.marcosroyo.backend.model.Reward;
+import com.marcosroyo.backend.model.Task;
+import com.marcosroyo.backend.model.User;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Coste de mapear entidades a DTO y de serializar listas de tareas a JSON con la misma
+ * configuracion de Jackson que usa Spring MVC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+  @Param({"10", "100", "1000"})
+  private int tasks;
+
+  private final TaskDtoMapper taskDtoMapper = new TaskDtoMapper();
+  private final RewardDtoMapper rewardDtoMapper = new RewardDtoMapper();
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+  private final LocalDate today = LocalDate.of(2025, 1, 15);
+
+  private List<Task> taskEntities;
+  private List<Reward> rewardEntities;
+  private List<TaskDto> taskDtos;
+
+  @Setup
+  public void setUp() {
+    User child = new User("child");
+    child.setId(2L);
+    taskEntities = new ArrayList<>();
+    rewardEntities = new ArrayList<>();
+    for (int i = 0; i < tasks; i++) {
+      taskEntities.add(new Task((long) i, "Tarea " + i, "Descripcion de la tarea " + i,
+          i % 3 == 0, i % 2 == 0, today.minusDays(i % 3), 10, child));
+      Reward reward = new Reward("Recompensa " + i, "Descripcion", 50, i % 4 == 0, child);
+      reward.setId((long) i);
+      rewardEntities.add(reward);
+    }
+    taskDtos = taskEntities.stream().map(taskDtoMapper::toDto).toList();
+  }
+
+  @Benchmark
+  public List<TaskDto> taskToDto() {
+    List<TaskDto> dtos = new ArrayList<>(taskEntities.size());
+    for (Task task : taskEntities) {
+      dtos.add(taskDtoMapper.toDto(task));
+    }
+    return dtos;
+  }
+
+  @Benchmark
+  public List<TaskDto> taskToDtoDerived() {
+    List<TaskDto> dtos = new ArrayList<>(taskEntities.size());
+    for (Task task : taskEntities) {
+      dtos.add(taskDtoMapper.toDto(task, today));
+    }
+    return dtos;
+  }
+
+  @Benchmark
+  public List<RewardDto> rewardToDto() {
+    List<RewardDto> dtos = new ArrayList<>(rewardEntities.size());
+    for (Reward reward : rewardEntities) {
+      dtos.add(rewardDtoMapper.toDto(reward));
+    }
+    return dtos;
+  }
+
+  @Benchmark
+  public byte[] serializeTaskDtos() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(taskDtos);
+  }
+}
@@ -0,0 +1,145 @@
+package com.marcosroyo.backend.benchmark;
+
+import com.marcosroyo.backend.BackendApplication;
+import com.marcosroyo.backend.dto.TaskDto;
+import com.marcosroyo.backend.dto.UserDto;
+import com.marcosroyo.backend.model.Task;
+import com.marcosroyo.backend.model.User;
+import com.marcosroyo.backend.service.TaskService;
+import com.marcosroyo.backend.service.UserService;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Operaciones de servicio contra H2 (esquema de las migraciones) con distintos volumenes de
+ * tareas: login, completar una tarea y el reinicio diario.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+  private static final int CHILDREN = 100;
+
+  @Param({"1000", "10000", "100000"})
+  private int tasks;
+
+  private ConfigurableApplicationContext context;
+  private UserService userService;
+  private TaskService taskService;
+  private JdbcTemplate jdbcTemplate;
+  private List<Long> dailyTaskIds;
+
+  // Cada completado usa un dia distinto para que la tarea diaria vuelva a estar pendiente
+  private final AtomicLong day = new AtomicLong();
+  private final LocalDate firstDay = LocalDate.of(2025, 1, 1);
+
+  @Setup
+  public void setUp() {
+    context = new SpringApplicationBuilder(BackendApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties("logging.level.root=WARN",
+            // Las tareas se siembran con una sola llamada a createTasks
+            "tasks.batch.max-size=" + tasks,
+            "spring.datasource.url=jdbc:h2:mem:service-bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                + "NON_KEYWORDS=USER;DB_CLOSE_ON_EXIT=FALSE")
+        .run();
+    userService = context.getBean(UserService.class);
+    taskService = context.getBean(TaskService.class);
+    jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+    User admin = new User("parent");
+    admin.setPassword("secret");
+    userService.createUser(admin);
+    List<Long> childIds = new ArrayList<>();
+    for (int i = 0; i < CHILDREN; i++) {
+      UserDto child = userService.createUser(new User("child" + i));
+      childIds.add(child.getId());
+    }
+
+    List<Task> chores = new ArrayList<>();
+    for (int i = 0; i < tasks / CHILDREN; i++) {
+      Task task = new Task();
+      task.setTitle("chore " + i);
+      task.setIsDaily(i % 2 == 0);
+      task.setRewardPoints(5);
+      chores.add(task);
+    }
+    dailyTaskIds = taskService.createTasks(chores, childIds).stream()
+        .filter(TaskDto::isDaily)
+        .map(TaskDto::getId)
+        .toList();
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public boolean loginChild() {
+    return userService.login("child" + ThreadLocalRandom.current().nextInt(CHILDREN), null);
+  }
+
+  @Benchmark
+  public boolean loginAdmin() {
+    return userService.login("parent", "secret");
+  }
+
+  @Benchmark
+  public TaskDto completeTask() {
+    Long taskId = dailyTaskIds.get(ThreadLocalRandom.current().nextInt(dailyTaskIds.size()));
+    return taskService.completeTask(taskId, firstDay.plusDays(day.incrementAndGet()));
+  }
+
+  @Benchmark
+  public TaskDto completeTaskAlreadyCompleted() {
+    return taskService.completeTask(dailyTaskIds.get(0), firstDay);
+  }
+
+  /**
+   * Reinicio de todas las tareas diarias; antes de cada llamada se vuelven a marcar como
+   * completadas.
+   */
+  @Benchmark
+  @Warmup(iterations = 2, batchSize = 1)
+  @Measurement(iterations = 10, batchSize = 1)
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int resetDailyTasks(CompletedDailyTasks completed) {
+    return taskService.resetDailyTasks();
+  }
+
+  @State(Scope.Thread)
+  public static class CompletedDailyTasks {
+
+    @Setup(Level.Invocation)
+    public void completeAll(ServiceBenchmark benchmark) {
+      benchmark.jdbcTemplate.update("UPDATE tasks SET is_completed = 1 WHERE is_daily = 1");
+    }
+  }
+}
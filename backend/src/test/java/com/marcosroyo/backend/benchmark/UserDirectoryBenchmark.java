@@ -0,0 +1,68 @@
+package com.marcosroyo.backend.benchmark;
+
+import com.marcosroyo.backend.model.User;
+import com.marcosroyo.backend.service.UserDirectory;
+import com.marcosroyo.backend.service.UserService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Latencia del login contra el directorio en memoria. Debe mantenerse plana entre 10 y 100k
+ * usuarios.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserDirectoryBenchmark {
+
+  @Param({"10", "1000", "100000"})
+  private int users;
+
+  private UserService userService;
+
+  @Setup
+  public void setUp() {
+    UserDirectory directory = new UserDirectory();
+    for (long i = 0; i < users; i++) {
+      User user = new User("user" + i);
+      user.setId(i + 1);
+      if (i == 0) {
+        user.setAdmin(true);
+        user.setPassword("secret");
+      }
+      directory.put(user);
+    }
+    userService = new UserService();
+    ReflectionTestUtils.setField(userService, "userDirectory", directory);
+  }
+
+  @Benchmark
+  public boolean loginChild() {
+    return userService.login("user" + ThreadLocalRandom.current().nextInt(1, users), null);
+  }
+
+  @Benchmark
+  public boolean loginAdmin() {
+    return userService.login("user0", "secret");
+  }
+
+  @Benchmark
+  public boolean loginUnknown() {
+    return userService.login("nobody", null);
+  }
+}
@@ -0,0 +1,93 @@
+package com.marcosroyo.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Canjes simultaneos del mismo usuario: cada peticion termina en 200 o 409, ninguna recompensa se
+ * canjea dos veces y el saldo nunca paga mas de lo que tenia.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class RewardRedemptionConcurrencyTest {
+
+  private static final int REWARDS = 5;
+  private static final int ATTEMPTS_PER_REWARD = 2;
+  private static final int PRICE = 20;
+  private static final int BALANCE = 50;
+
+  @Autowired
+  private MockMvc mvc;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void concurrentRedemptionsNeverDoubleSpend() throws Exception {
+    jdbcTemplate.update("INSERT INTO users (username, password, is_admin, points) "
+        + "VALUES ('redeem-user', NULL, 0, ?)", BALANCE);
+    Long userId = jdbcTemplate.queryForObject(
+        "SELECT id FROM users WHERE username = 'redeem-user'", Long.class);
+    List<Long> rewardIds = new ArrayList<>();
+    for (int i = 0; i < REWARDS; i++) {
+      jdbcTemplate.update("INSERT INTO rewards (title, description, price, is_redeemed, user_id) "
+          + "VALUES (?, NULL, ?, 0, ?)", "redeem " + i, PRICE, userId);
+      rewardIds.add(jdbcTemplate.queryForObject(
+          "SELECT id FROM rewards WHERE title = ?", Long.class, "redeem " + i));
+    }
+
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(REWARDS * ATTEMPTS_PER_REWARD);
+    List<Future<Integer>> statuses = new ArrayList<>();
+    try {
+      for (Long rewardId : rewardIds) {
+        for (int i = 0; i < ATTEMPTS_PER_REWARD; i++) {
+          statuses.add(pool.submit(() -> {
+            start.await();
+            return mvc.perform(put("/rewards/" + rewardId + "/redeem?userId=" + userId))
+                .andReturn().getResponse().getStatus();
+          }));
+        }
+      }
+      start.countDown();
+      int redeemed = 0;
+      for (Future<Integer> status : statuses) {
+        int code = status.get();
+        assertTrue(code == 200 || code == 409, "estado inesperado " + code);
+        if (code == 200) {
+          redeemed++;
+        }
+      }
+
+      int expected = BALANCE / PRICE;
+      assertEquals(expected, redeemed);
+      assertEquals(expected, jdbcTemplate.queryForObject(
+          "SELECT COUNT(*) FROM rewards WHERE user_id = ? AND is_redeemed = 1", Integer.class,
+          userId));
+      assertEquals(BALANCE - expected * PRICE, jdbcTemplate.queryForObject(
+          "SELECT points FROM users WHERE id = ?", Integer.class, userId));
+      assertEquals(expected, jdbcTemplate.queryForObject(
+          "SELECT COUNT(*) FROM points_ledger WHERE user_id = ? AND reason = 'REWARD_REDEEMED'",
+          Integer.class, userId));
+      assertEquals(expected, jdbcTemplate.queryForObject(
+          "SELECT COUNT(DISTINCT reference_id) FROM points_ledger "
+              + "WHERE user_id = ? AND reason = 'REWARD_REDEEMED'", Integer.class, userId));
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package com.marcosroyo.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import com.marcosroyo.backend.config.SqlStatementBudgetFilter;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Los listados ejecutan el mismo numero de sentencias SQL con pocas y con muchas filas. En las
+ * pruebas sql.budget.fail-on-exceed esta activo, asi que superar el presupuesto de
+ * sql-budgets.properties hace fallar la peticion.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class SqlStatementBudgetTest {
+
+  @Autowired
+  private MockMvc mvc;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Test
+  void listingsDoNotGrowWithRowCount() throws Exception {
+    jdbcTemplate.update("INSERT INTO users (username, password, is_admin, points) "
+        + "VALUES ('budget-user', NULL, 0, 0)");
+    Long userId = jdbcTemplate.queryForObject(
+        "SELECT id FROM users WHERE username = 'budget-user'", Long.class);
+
+    List<String> urls = List.of(
+        "/tasks?isAdmin=false&userId=" + userId,
+        "/tasks?isAdmin=true&userId=" + userId,
+        "/tasks/incomplete?isAdmin=false&userId=" + userId,
+        "/tasks/completed?isAdmin=false&userId=" + userId,
+        "/rewards?isAdmin=false&userId=" + userId,
+        "/rewards/available?isAdmin=false&userId=" + userId,
+        "/users",
+        "/users/" + userId + "/summary",
+        "/admin/export/tasks?isAdmin=true",
+        "/admin/export/rewards?isAdmin=true&format=csv",
+        "/admin/export/points?isAdmin=true&userId=" + userId);
+
+    insertRows(userId, 2);
+    List<Integer> few = new ArrayList<>();
+    for (String url : urls) {
+      few.add(statements(url));
+    }
+
+    insertRows(userId, 200);
+    for (int i = 0; i < urls.size(); i++) {
+      assertEquals(few.get(i), statements(urls.get(i)), urls.get(i));
+    }
+  }
+
+  private int statements(String url) throws Exception {
+    MockHttpServletResponse response = mvc.perform(get(url)).andReturn().getResponse();
+    assertEquals(200, response.getStatus(), url);
+    String header = response.getHeader(SqlStatementBudgetFilter.STATEMENTS_HEADER);
+    assertTrue(header != null, url + " sin cabecera " + SqlStatementBudgetFilter.STATEMENTS_HEADER);
+    return Integer.parseInt(header);
+  }
+
+  private void insertRows(Long userId, int count) {
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      rows.add(new Object[] {"budget " + i, i % 2 == 0, i % 3 == 0, userId});
+    }
+    jdbcTemplate.batchUpdate("INSERT INTO tasks (title, is_completed, is_daily, reward_points, "
+        + "user_id) VALUES (?, ?, ?, 10, ?)", rows);
+    jdbcTemplate.batchUpdate("INSERT INTO rewards (title, is_redeemed, price, user_id) "
+        + "VALUES (?, ?, 5, ?)", rows.stream()
+        .map(row -> new Object[] {row[0], row[1], row[3]})
+        .toList());
+    // Las filas se insertan sin pasar por los servicios, que son los que invalidan la cache de
+    // segundo nivel; se vacia para medir las consultas y no los aciertos
+    entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+  }
+}
@@ -0,0 +1,74 @@
+package com.marcosroyo.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marcosroyo.backend.config.SqlStatementBudgetFilter;
+import com.marcosroyo.backend.model.PointsLedgerEntry.Reason;
+import com.marcosroyo.backend.service.PointsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * GET /users/{id} se sirve de la cache de consultas, y un abono hecho con JdbcTemplate se ve en
+ * la siguiente lectura sin vaciar la region: solo si se confirma, no si se deshace.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserCacheInvalidationTest {
+
+  @Autowired
+  private MockMvc mvc;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private PointsService pointsService;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Test
+  void creditedPointsAreVisibleThroughTheCache() throws Exception {
+    jdbcTemplate.update("INSERT INTO users (username, password, is_admin, points) "
+        + "VALUES ('cache-user', NULL, 0, 10)");
+    Long userId = jdbcTemplate.queryForObject(
+        "SELECT id FROM users WHERE username = 'cache-user'", Long.class);
+    String url = "/users/" + userId;
+
+    assertEquals(10, points(mvc.perform(get(url)).andReturn().getResponse()));
+    MockHttpServletResponse cached = mvc.perform(get(url)).andReturn().getResponse();
+    assertEquals(10, points(cached));
+    assertEquals("0", cached.getHeader(SqlStatementBudgetFilter.STATEMENTS_HEADER));
+
+    assertTrue(pointsService.credit(userId, 5, Reason.MANUAL_ADJUSTMENT, null));
+    assertEquals(15, points(mvc.perform(get(url)).andReturn().getResponse()));
+    assertEquals("0", mvc.perform(get(url)).andReturn().getResponse()
+        .getHeader(SqlStatementBudgetFilter.STATEMENTS_HEADER));
+
+    transactionTemplate.executeWithoutResult(status -> {
+      pointsService.credit(userId, 100, Reason.MANUAL_ADJUSTMENT, null);
+      status.setRollbackOnly();
+    });
+    assertEquals(15, points(mvc.perform(get(url)).andReturn().getResponse()));
+  }
+
+  private int points(MockHttpServletResponse response) throws Exception {
+    assertEquals(200, response.getStatus());
+    JsonNode user = objectMapper.readTree(response.getContentAsString());
+    return user.get("points").asInt();
+  }
+}
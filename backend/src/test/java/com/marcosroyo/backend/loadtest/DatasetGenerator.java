@@ -0,0 +1,228 @@
+package com.marcosroyo.backend.loadtest;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Genera datos sinteticos directamente con INSERT por lotes (JDBC batch), sin pasar por JPA ni por
+ * los servicios. El volumen se indica en numero de tareas; por cada diez tareas hay de media un
+ * usuario y cinco recompensas, con estas distribuciones:
+ *
+ * <ul>
+ *   <li>Tareas por usuario exponencial (media 10), el 40% diarias.</li>
+ *   <li>Diarias completadas hoy el 55%; puntuales completadas el 35%, en los ultimos 30 dias.</li>
+ *   <li>Puntos de tarea de 5 a 50, sesgados hacia los valores bajos.</li>
+ *   <li>Recompensas de 20 a 500 puntos, canjeadas el 25%.</li>
+ *   <li>Saldo de los usuarios exponencial (media 120).</li>
+ * </ul>
+ *
+ * Si la tabla de usuarios esta vacia se crea antes el administrador (parent/secret). Despues de
+ * generar hay que recargar {@code UserDirectory} y registrar los saldos de apertura en el libro de
+ * puntos ({@code PointsService.seedOpeningBalances}).
+ */
+public class DatasetGenerator {
+
+  private static final int BATCH_SIZE = 10_000;
+
+  private static final String INSERT_USER =
+      "INSERT INTO users (id, username, password, is_admin, points) VALUES (?, ?, ?, ?, ?)";
+  private static final String INSERT_TASK =
+      "INSERT INTO tasks (id, title, description, is_completed, is_daily, last_completed_date, "
+          + "reward_points, user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+  private static final String INSERT_REWARD =
+      "INSERT INTO rewards (id, title, description, price, is_redeemed, user_id) "
+          + "VALUES (?, ?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final Random random;
+  private final LocalDate today;
+
+  private final List<Object[]> users = new ArrayList<>();
+  private final List<Object[]> tasks = new ArrayList<>();
+  private final List<Object[]> rewards = new ArrayList<>();
+
+  public DatasetGenerator(JdbcTemplate jdbcTemplate, long seed, LocalDate today) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.random = new Random(seed);
+    this.today = today;
+  }
+
+  /**
+   * Inserta usuarios, tareas y recompensas hasta alcanzar el numero de tareas indicado.
+   */
+  public Dataset generate(long taskCount) {
+    Long adminId = jdbcTemplate.queryForObject(
+        "SELECT MIN(id) FROM users WHERE is_admin = 1", Long.class);
+    long userId = nextId("users");
+    if (adminId == null) {
+      adminId = userId++;
+      jdbcTemplate.update(INSERT_USER, adminId, "parent", "secret", true, 0);
+    }
+    long taskId = nextId("tasks");
+    long rewardId = nextId("rewards");
+
+    long firstUserId = userId;
+    long firstTaskId = taskId;
+    long firstRewardId = rewardId;
+    long lastTaskId = firstTaskId + taskCount;
+
+    while (taskId < lastTaskId) {
+      long childId = userId++;
+      users.add(new Object[] {childId, "gen-" + childId, null, false, exponential(120, 5_000)});
+      flushUsersIfFull();
+
+      int childTasks = Math.min(1 + exponential(9, 60), (int) (lastTaskId - taskId));
+      for (int i = 0; i < childTasks; i++) {
+        tasks.add(task(taskId++, childId));
+        flushIfFull(tasks, INSERT_TASK);
+      }
+
+      int childRewards = exponential(5, 30);
+      for (int i = 0; i < childRewards; i++) {
+        rewards.add(new Object[] {rewardId++, "Recompensa " + i, "Premio generado",
+            20 + 10 * exponential(8, 48), random.nextDouble() < 0.25, childId});
+        flushIfFull(rewards, INSERT_REWARD);
+      }
+    }
+    flushUsers();
+    flush(tasks, INSERT_TASK);
+    flush(rewards, INSERT_REWARD);
+
+    restartIdentity("users", userId);
+    restartIdentity("tasks", taskId);
+    restartIdentity("rewards", rewardId);
+
+    return new Dataset(adminId, firstUserId, userId, firstTaskId, taskId, firstRewardId,
+        rewardId);
+  }
+
+  private Object[] task(long id, long userId) {
+    boolean daily = random.nextDouble() < 0.4;
+    boolean completed;
+    LocalDate lastCompleted = null;
+    if (daily) {
+      completed = random.nextDouble() < 0.55;
+      if (completed) {
+        lastCompleted = today;
+      } else if (random.nextDouble() < 0.8) {
+        lastCompleted = today.minusDays(1 + random.nextInt(7));
+      }
+    } else {
+      completed = random.nextDouble() < 0.35;
+      if (completed) {
+        lastCompleted = today.minusDays(random.nextInt(30));
+      }
+    }
+    return new Object[] {id, daily ? "Tarea diaria" : "Tarea", "Tarea generada", completed, daily,
+        lastCompleted != null ? Date.valueOf(lastCompleted) : null,
+        5 * (1 + exponential(2, 9)), userId};
+  }
+
+  /**
+   * Entero con distribucion exponencial de la media indicada, acotado al maximo.
+   */
+  private int exponential(double mean, int max) {
+    return (int) Math.min(max, -mean * Math.log(1 - random.nextDouble()));
+  }
+
+  // Las tareas y recompensas referencian usuarios, que deben insertarse antes
+  private void flushUsersIfFull() {
+    if (users.size() >= BATCH_SIZE) {
+      flushUsers();
+    }
+  }
+
+  private void flushIfFull(List<Object[]> rows, String sql) {
+    if (rows.size() >= BATCH_SIZE) {
+      flushUsers();
+      flush(rows, sql);
+    }
+  }
+
+  private void flushUsers() {
+    flush(users, INSERT_USER);
+  }
+
+  private void flush(List<Object[]> rows, String sql) {
+    if (!rows.isEmpty()) {
+      jdbcTemplate.batchUpdate(sql, rows);
+      rows.clear();
+    }
+  }
+
+  private long nextId(String table) {
+    Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+    return maxId != null ? maxId + 1 : 1;
+  }
+
+  /**
+   * MySQL avanza el AUTO_INCREMENT al insertar ids explicitos; H2 no, y hay que reiniciarlo.
+   */
+  private void restartIdentity(String table, long nextId) {
+    String product = jdbcTemplate.execute(
+        (ConnectionCallback<String>) connection -> connection.getMetaData()
+            .getDatabaseProductName());
+    if ("H2".equals(product)) {
+      jdbcTemplate.execute(
+          "ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + nextId);
+    }
+  }
+
+  /**
+   * Rangos de ids generados (el final es exclusivo), para elegir filas al azar en las pruebas.
+   */
+  public static class Dataset {
+
+    private final long adminId;
+    private final long firstUserId;
+    private final long endUserId;
+    private final long firstTaskId;
+    private final long endTaskId;
+    private final long firstRewardId;
+    private final long endRewardId;
+
+    public Dataset(long adminId, long firstUserId, long endUserId, long firstTaskId,
+        long endTaskId, long firstRewardId, long endRewardId) {
+      this.adminId = adminId;
+      this.firstUserId = firstUserId;
+      this.endUserId = endUserId;
+      this.firstTaskId = firstTaskId;
+      this.endTaskId = endTaskId;
+      this.firstRewardId = firstRewardId;
+      this.endRewardId = endRewardId;
+    }
+
+    public long getAdminId() {
+      return adminId;
+    }
+
+    public long getUsers() {
+      return endUserId - firstUserId;
+    }
+
+    public long getTasks() {
+      return endTaskId - firstTaskId;
+    }
+
+    public long getRewards() {
+      return endRewardId - firstRewardId;
+    }
+
+    public long randomUserId(Random random) {
+      return firstUserId + random.nextLong(getUsers());
+    }
+
+    public long randomTaskId(Random random) {
+      return firstTaskId + random.nextLong(getTasks());
+    }
+
+    public long randomRewardId(Random random) {
+      return firstRewardId + random.nextLong(Math.max(1, getRewards()));
+    }
+  }
+}
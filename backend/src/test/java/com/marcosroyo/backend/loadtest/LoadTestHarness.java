@@ -0,0 +1,332 @@
+package com.marcosroyo.backend.loadtest;
+
+import com.marcosroyo.backend.BackendApplication;
+import com.marcosroyo.backend.dto.RewardDto;
+import com.marcosroyo.backend.dto.TaskDto;
+import com.marcosroyo.backend.dto.UserDto;
+import com.marcosroyo.backend.model.Reward;
+import com.marcosroyo.backend.model.Task;
+import com.marcosroyo.backend.model.User;
+import com.marcosroyo.backend.service.RewardService;
+import com.marcosroyo.backend.service.TaskService;
+import com.marcosroyo.backend.service.UserService;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Generador de carga HTTP contra la aplicacion arrancada en este mismo proceso sobre H2. Reproduce
+ * la actividad de una familia (consultar tareas, completarlas, canjear recompensas, iniciar
+ * sesion) con un reloj simulado en el que cada dia dura unos segundos reales: las fechas enviadas
+ * por los clientes avanzan y en cada cambio de dia se lanza el reinicio de las tareas diarias. Al
+ * terminar imprime throughput y percentiles por operacion y guarda los histogramas (.hgrm) en
+ * target/loadtest.
+ *
+ * <p>mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--duration=120 --concurrency=128"
+ *
+ * <p>Opciones (--clave=valor): children, tasks-per-child, rewards-per-child, duration (s),
+ * warmup (s), concurrency, rate (peticiones/s en total, 0 = bucle cerrado), day-length (s de un dia
+ * simulado), mix (p. ej. get-tasks=50,complete=25,redeem=10,login=15), virtual-threads.
+ */
+public class LoadTestHarness {
+
+  enum Operation {
+    GET_TASKS("get-tasks", 50),
+    COMPLETE("complete", 25),
+    REDEEM("redeem", 10),
+    LOGIN("login", 15),
+    DAILY_RESET("daily-reset", 0);
+
+    final String key;
+    final int defaultWeight;
+
+    Operation(String key, int defaultWeight) {
+      this.key = key;
+      this.defaultWeight = defaultWeight;
+    }
+  }
+
+  private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+  private final Map<String, String> options;
+  private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+  private final Map<Operation, Map<Integer, AtomicLong>> statuses = new EnumMap<>(Operation.class);
+  private final List<Long> childIds = new ArrayList<>();
+  private final Map<Long, List<Long>> tasksByChild = new HashMap<>();
+  private final Map<Long, List<Long>> rewardsByChild = new HashMap<>();
+  private final AtomicReference<LocalDate> simulatedDate =
+      new AtomicReference<>(LocalDate.of(2025, 1, 1));
+
+  private HttpClient client;
+  private String baseUrl;
+  private volatile boolean recording;
+
+  LoadTestHarness(Map<String, String> options) {
+    this.options = options;
+    for (Operation operation : Operation.values()) {
+      recorders.put(operation, new Recorder(MAX_LATENCY_MICROS, 3));
+      statuses.put(operation, new ConcurrentHashMap<>());
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+      options.put(pair[0], pair.length > 1 ? pair[1] : "true");
+    }
+    // Devtools relanzaria main sin estos argumentos en su propio classloader
+    System.setProperty("spring.devtools.restart.enabled", "false");
+    new LoadTestHarness(options).run();
+  }
+
+  void run() throws Exception {
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+        .properties("server.port=0", "logging.level.root=WARN",
+            "spring.threads.virtual.enabled=" + option("virtual-threads", "false"))
+        .run();
+    try {
+      baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+      client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+          .connectTimeout(Duration.ofSeconds(5)).build();
+      seed(context);
+      drive();
+      report();
+    } finally {
+      context.close();
+    }
+  }
+
+  private void seed(ConfigurableApplicationContext context) {
+    UserService userService = context.getBean(UserService.class);
+    TaskService taskService = context.getBean(TaskService.class);
+    RewardService rewardService = context.getBean(RewardService.class);
+
+    User parent = new User("parent");
+    parent.setPassword("secret");
+    userService.createUser(parent);
+
+    int children = intOption("children", 200);
+    for (int i = 0; i < children; i++) {
+      UserDto child = userService.createUser(new User("child" + i));
+      childIds.add(child.getId());
+      userService.addPointsToUser(child.getId(), 100);
+      tasksByChild.put(child.getId(), new ArrayList<>());
+      rewardsByChild.put(child.getId(), new ArrayList<>());
+    }
+
+    List<Task> chores = new ArrayList<>();
+    for (int i = 0; i < intOption("tasks-per-child", 10); i++) {
+      Task chore = new Task();
+      chore.setTitle("Tarea " + i);
+      chore.setIsDaily(i % 2 == 0);
+      chore.setRewardPoints(5 + i);
+      chores.add(chore);
+    }
+    for (TaskDto task : taskService.createTasks(chores, childIds)) {
+      tasksByChild.get(task.getAssignedUserId()).add(task.getId());
+    }
+
+    int rewardsPerChild = intOption("rewards-per-child", 5);
+    for (Long childId : childIds) {
+      User child = new User();
+      child.setId(childId);
+      for (int i = 0; i < rewardsPerChild; i++) {
+        RewardDto reward = rewardService.createReward(
+            new Reward("Recompensa " + i, "Premio", 20 + 10 * i, false, child));
+        rewardsByChild.get(childId).add(reward.getId());
+      }
+    }
+    System.out.printf("Seeded %d children, %d tasks and %d rewards%n", children,
+        children * chores.size(), children * rewardsPerChild);
+  }
+
+  private void drive() throws InterruptedException {
+    Operation[] mix = parseMix(option("mix", ""));
+    int concurrency = intOption("concurrency", 64);
+    double rate = Double.parseDouble(option("rate", "0"));
+    long warmupNanos = TimeUnit.SECONDS.toNanos(intOption("warmup", 10));
+    long durationNanos = TimeUnit.SECONDS.toNanos(intOption("duration", 60));
+    long dayNanos = TimeUnit.SECONDS.toNanos(intOption("day-length", 10));
+
+    long start = System.nanoTime();
+    long end = start + warmupNanos + durationNanos;
+    List<Thread> workers = new ArrayList<>();
+    for (int i = 0; i < concurrency; i++) {
+      // En modo de tasa fija cada cliente tiene su propio calendario de envios, y la latencia
+      // se mide desde el instante previsto para no ocultar las esperas (coordinated omission)
+      long interval = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) * concurrency / rate) : 0;
+      long offset = rate > 0 ? interval * i / concurrency : 0;
+      Thread worker = new Thread(() -> work(mix, start + offset, interval, end), "load-" + i);
+      worker.start();
+      workers.add(worker);
+    }
+
+    long day = 0;
+    while (System.nanoTime() < end) {
+      long now = System.nanoTime();
+      recording = now - start >= warmupNanos;
+      long currentDay = (now - start) / dayNanos;
+      if (currentDay > day) {
+        day = currentDay;
+        simulatedDate.set(simulatedDate.get().plusDays(1));
+        execute(Operation.DAILY_RESET, now);
+      }
+      Thread.sleep(50);
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    recording = false;
+  }
+
+  private void work(Operation[] mix, long firstSend, long interval, long end) {
+    long intended = firstSend;
+    while (true) {
+      if (interval > 0) {
+        long wait = intended - System.nanoTime();
+        if (wait > 0) {
+          LockSupport.parkNanos(wait);
+        }
+      } else {
+        intended = System.nanoTime();
+      }
+      if (intended >= end || System.nanoTime() >= end) {
+        return;
+      }
+      execute(mix[ThreadLocalRandom.current().nextInt(mix.length)], intended);
+      intended += interval;
+    }
+  }
+
+  private void execute(Operation operation, long intendedStart) {
+    int status;
+    try {
+      status = client.send(request(operation), HttpResponse.BodyHandlers.discarding())
+          .statusCode();
+    } catch (IOException e) {
+      status = -1;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    if (recording) {
+      long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+      recorders.get(operation).recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+      statuses.get(operation).computeIfAbsent(status, s -> new AtomicLong()).incrementAndGet();
+    }
+  }
+
+  private HttpRequest request(Operation operation) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    Long childId = childIds.get(random.nextInt(childIds.size()));
+    String date = simulatedDate.get().toString();
+    return switch (operation) {
+      case GET_TASKS -> HttpRequest.newBuilder(URI.create(baseUrl + "/tasks?isAdmin=false&userId="
+          + childId + "&currentDate=" + date)).GET().build();
+      case COMPLETE -> {
+        List<Long> tasks = tasksByChild.get(childId);
+        yield HttpRequest.newBuilder(URI.create(baseUrl + "/tasks/"
+                + tasks.get(random.nextInt(tasks.size())) + "/complete?clientDate=" + date))
+            .PUT(HttpRequest.BodyPublishers.noBody()).build();
+      }
+      case REDEEM -> {
+        List<Long> rewards = rewardsByChild.get(childId);
+        yield HttpRequest.newBuilder(URI.create(baseUrl + "/rewards/"
+                + rewards.get(random.nextInt(rewards.size())) + "/redeem"))
+            .PUT(HttpRequest.BodyPublishers.noBody()).build();
+      }
+      case LOGIN -> HttpRequest.newBuilder(URI.create(baseUrl + "/users/login"))
+          .header("Content-Type", "application/json")
+          .POST(HttpRequest.BodyPublishers.ofString(
+              "{\"username\":\"child" + random.nextInt(childIds.size()) + "\"}"))
+          .build();
+      case DAILY_RESET -> HttpRequest.newBuilder(URI.create(baseUrl
+              + "/tasks/reset-daily?isAdmin=true"))
+          .POST(HttpRequest.BodyPublishers.noBody()).build();
+    };
+  }
+
+  private void report() throws IOException {
+    Path dir = Path.of("target", "loadtest");
+    Files.createDirectories(dir);
+    double seconds = intOption("duration", 60);
+    System.out.printf("%n%-12s %9s %9s %9s %9s %9s %9s %9s  %s%n", "operation", "count",
+        "req/s", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms", "status");
+    for (Operation operation : Operation.values()) {
+      Histogram histogram = recorders.get(operation).getIntervalHistogram();
+      if (histogram.getTotalCount() == 0) {
+        continue;
+      }
+      System.out.printf("%-12s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n", operation.key,
+          histogram.getTotalCount(), histogram.getTotalCount() / seconds,
+          histogram.getValueAtPercentile(50) / 1000.0,
+          histogram.getValueAtPercentile(90) / 1000.0,
+          histogram.getValueAtPercentile(99) / 1000.0,
+          histogram.getValueAtPercentile(99.9) / 1000.0,
+          histogram.getMaxValue() / 1000.0,
+          statuses.get(operation));
+      try (PrintStream out = new PrintStream(
+          Files.newOutputStream(dir.resolve(operation.key + ".hgrm")))) {
+        histogram.outputPercentileDistribution(out, 1000.0);
+      }
+    }
+    System.out.println("Histograms written to " + dir.toAbsolutePath());
+  }
+
+  private Operation[] parseMix(String mix) {
+    Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+    for (Operation operation : Operation.values()) {
+      weights.put(operation, operation.defaultWeight);
+    }
+    for (String entry : mix.split(",")) {
+      if (entry.isBlank()) {
+        continue;
+      }
+      String[] pair = entry.split("=");
+      for (Operation operation : Operation.values()) {
+        if (operation.key.equals(pair[0].trim())) {
+          weights.put(operation, Integer.parseInt(pair[1].trim()));
+        }
+      }
+    }
+    weights.put(Operation.DAILY_RESET, 0);
+    List<Operation> slots = new ArrayList<>();
+    weights.forEach((operation, weight) -> {
+      for (int i = 0; i < weight; i++) {
+        slots.add(operation);
+      }
+    });
+    return slots.toArray(new Operation[0]);
+  }
+
+  private String option(String key, String defaultValue) {
+    return options.getOrDefault(key, defaultValue);
+  }
+
+  private int intOption(String key, int defaultValue) {
+    return Integer.parseInt(option(key, String.valueOf(defaultValue)));
+  }
+}
@@ -0,0 +1,371 @@
+package com.marcosroyo.backend.loadtest;
+
+import com.marcosroyo.backend.BackendApplication;
+import com.marcosroyo.backend.loadtest.DatasetGenerator.Dataset;
+import com.marcosroyo.backend.model.Reward;
+import com.marcosroyo.backend.model.Task;
+import com.marcosroyo.backend.model.User;
+import com.marcosroyo.backend.repository.TaskRepository;
+import com.marcosroyo.backend.service.PointsService;
+import com.marcosroyo.backend.service.RewardService;
+import com.marcosroyo.backend.service.TaskService;
+import com.marcosroyo.backend.service.UserDirectory;
+import com.marcosroyo.backend.service.UserService;
+import com.marcosroyo.backend.service.UserSummaryService;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Ejecuta todas las operaciones publicas de {@link TaskService}, {@link RewardService} y
+ * {@link UserService} sobre conjuntos de datos de distinto tamaño generados con
+ * {@link DatasetGenerator}, y muestra como escalan la latencia, la memoria reservada por llamada
+ * y el heap ocupado tras la carga. Cada tamaño arranca su propio contexto sobre una base H2 nueva.
+ * El resultado queda tambien en target/loadtest/scale.csv.
+ *
+ * <p>mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.marcosroyo.backend.loadtest.ScaleSuite
+ * -Dloadtest.args="--sizes=1000,100000"
+ *
+ * <p>Opciones (--clave=valor): sizes (numero de tareas), iterations, max-list-rows (por encima no
+ * se ejecutan los listados completos de administrador), seed. Cualquier opcion spring.* se pasa a
+ * la aplicacion, por ejemplo para generar 10M filas contra MySQL con spring.datasource.url.
+ */
+public class ScaleSuite {
+
+  private static final long MAX_LATENCY_MICROS = 60_000_000L;
+
+  private final Map<String, String> options;
+  private final List<String> csv = new ArrayList<>();
+
+  ScaleSuite(Map<String, String> options) {
+    this.options = options;
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+      options.put(pair[0], pair.length > 1 ? pair[1] : "true");
+    }
+    // Devtools relanzaria main sin estos argumentos en su propio classloader
+    System.setProperty("spring.devtools.restart.enabled", "false");
+    new ScaleSuite(options).run();
+  }
+
+  void run() throws IOException {
+    csv.add("size,operation,count,p50_us,p99_us,max_us,alloc_bytes_per_op,heap_after_load_mb");
+    for (String size : options.getOrDefault("sizes", "1000,100000").split(",")) {
+      runSize(Long.parseLong(size.trim()));
+    }
+    Path dir = Path.of("target", "loadtest");
+    Files.createDirectories(dir);
+    Files.write(dir.resolve("scale.csv"), csv);
+    System.out.println("Results written to " + dir.resolve("scale.csv").toAbsolutePath());
+  }
+
+  private void runSize(long size) {
+    List<String> properties = new ArrayList<>(List.of("logging.level.root=WARN",
+        "spring.datasource.url=jdbc:h2:mem:scale-" + size + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+            + "NON_KEYWORDS=USER;DB_CLOSE_ON_EXIT=FALSE"));
+    options.forEach((key, value) -> {
+      if (key.startsWith("spring.")) {
+        properties.add(key + "=" + value);
+      }
+    });
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties(properties.toArray(new String[0]))
+        .run();
+    try {
+      LocalDate today = LocalDate.now();
+      long start = System.nanoTime();
+      Dataset dataset = new DatasetGenerator(context.getBean(JdbcTemplate.class),
+          Long.parseLong(options.getOrDefault("seed", "42")), today).generate(size);
+      context.getBean(UserDirectory.class).load();
+      context.getBean(PointsService.class).seedOpeningBalances();
+      long loadMillis = (System.nanoTime() - start) / 1_000_000;
+      long heapMb = usedHeapAfterGc() / (1024 * 1024);
+
+      System.out.printf("%n== %d tasks, %d users, %d rewards: generated in %d ms, heap %d MB%n",
+          dataset.getTasks(), dataset.getUsers(), dataset.getRewards(), loadMillis, heapMb);
+      System.out.printf("%-28s %7s %10s %10s %10s %12s%n", "operation", "count", "p50 us",
+          "p99 us", "max us", "alloc B/op");
+
+      for (Map.Entry<String, Operation> entry : operations(context, dataset, today).entrySet()) {
+        Operation operation = entry.getValue();
+        if (operation.unbounded && size > Long.parseLong(
+            options.getOrDefault("max-list-rows", "1000000"))) {
+          System.out.printf("%-28s %7s%n", entry.getKey(), "skipped");
+          continue;
+        }
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "200"));
+        if (operation.unbounded) {
+          iterations = Math.max(3, iterations / 20);
+        }
+        measure(size, heapMb, entry.getKey(), operation, iterations);
+      }
+    } finally {
+      context.close();
+    }
+  }
+
+  private void measure(long size, long heapMb, String name, Operation operation,
+      int iterations) {
+    Random random = new Random(name.hashCode());
+    Histogram histogram = new Histogram(MAX_LATENCY_MICROS, 3);
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long allocated = 0;
+    // La primera decima parte de las llamadas es calentamiento y no se mide
+    for (int i = -iterations / 10; i < iterations; i++) {
+      Runnable call = operation.prepare.apply(random);
+      long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+      long start = System.nanoTime();
+      call.run();
+      long micros = (System.nanoTime() - start) / 1000;
+      if (i >= 0) {
+        histogram.recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+        allocated += threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+      }
+    }
+    long allocatedPerOp = allocated / iterations;
+    System.out.printf("%-28s %7d %10d %10d %10d %12d%n", name, histogram.getTotalCount(),
+        histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99),
+        histogram.getMaxValue(), allocatedPerOp);
+    csv.add(String.join(",", String.valueOf(size), name,
+        String.valueOf(histogram.getTotalCount()),
+        String.valueOf(histogram.getValueAtPercentile(50)),
+        String.valueOf(histogram.getValueAtPercentile(99)),
+        String.valueOf(histogram.getMaxValue()), String.valueOf(allocatedPerOp),
+        String.valueOf(heapMb)));
+  }
+
+  private Map<String, Operation> operations(ConfigurableApplicationContext context,
+      Dataset dataset, LocalDate today) {
+    TaskService tasks = context.getBean(TaskService.class);
+    RewardService rewards = context.getBean(RewardService.class);
+    UserService users = context.getBean(UserService.class);
+    UserSummaryService summaries = context.getBean(UserSummaryService.class);
+    TaskRepository taskRepo = context.getBean(TaskRepository.class);
+    JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+    Deque<Long> createdTasks = new ArrayDeque<>();
+    Deque<Long> createdRewards = new ArrayDeque<>();
+    Deque<Long> createdUsers = new ArrayDeque<>();
+    long[] day = {0};
+    long[] userSequence = {0};
+
+    Map<String, Operation> operations = new LinkedHashMap<>();
+    operations.put("tasks.getAll", bounded(r -> {
+      long userId = dataset.randomUserId(r);
+      return () -> tasks.getAllTasks(userId, false, today);
+    }));
+    operations.put("tasks.getAll(admin)", unbounded(r ->
+        () -> tasks.getAllTasks(dataset.getAdminId(), true, today)));
+    operations.put("tasks.getIncomplete", bounded(r -> {
+      long userId = dataset.randomUserId(r);
+      return () -> tasks.getIncompleteTasks(userId, false, today);
+    }));
+    operations.put("tasks.getCompleted", bounded(r -> {
+      long userId = dataset.randomUserId(r);
+      return () -> tasks.getCompletedTasks(userId, false, today);
+    }));
+    operations.put("tasks.getById", bounded(r -> {
+      long taskId = dataset.randomTaskId(r);
+      return () -> tasks.getTaskById(taskId, today);
+    }));
+    operations.put("tasks.getAllPage(admin)", bounded(r ->
+        () -> tasks.getAllTasksPage(dataset.getAdminId(), true, dataset.randomTaskId(r), 50,
+            today)));
+    operations.put("tasks.getIncompletePage", bounded(r -> {
+      long userId = dataset.randomUserId(r);
+      return () -> tasks.getIncompleteTasksPage(userId, false, null, 50, today);
+    }));
+    operations.put("tasks.getCompletedPage", bounded(r -> {
+      long userId = dataset.randomUserId(r);
+      return () -> tasks.getCompletedTasksPage(userId, false, null, 50, today);
+    }));
+    operations.put("tasks.create", bounded(r -> {
+      Task task = chore(dataset.randomUserId(r));
+      return () -> createdTasks.push(tasks.createTask(task).getId());
+    }));
+    operations.put("tasks.createBatch(10)", bounded(r -> {
+      List<Task> chores = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+        chores.add(chore(null));
+      }
+      List<Long> userIds = List.of(dataset.randomUserId(r));
+      return () -> tasks.createTasks(chores, userIds);
+    }));
+    operations.put("tasks.complete", bounded(r -> {
+      long taskId = dataset.randomTaskId(r);
+      LocalDate date = today.plusDays(++day[0]);
+      return () -> tasks.completeTaskWithBalance(taskId, date);
+    }));
+    operations.put("tasks.update", bounded(r -> {
+      Task task = taskRepo.findById(dataset.randomTaskId(r)).orElseThrow();
+      task.setTitle("Tarea actualizada");
+      return () -> tasks.updateTask(task);
+    }));
+    operations.put("tasks.checkAndResetDaily", bounded(r -> {
+      long userId = dataset.randomUserId(r);
+      LocalDate date = today.plusDays(++day[0]);
+      return () -> tasks.checkAndResetDailyTasksForUser(userId, date);
+    }));
+    operations.put("tasks.resetDaily", unbounded(r -> {
+      jdbcTemplate.update("UPDATE tasks SET is_completed = 1 WHERE is_daily = 1");
+      return tasks::resetDailyTasks;
+    }));
+    operations.put("tasks.delete", bounded(r -> {
+      Long taskId = createdTasks.isEmpty()
+          ? tasks.createTask(chore(dataset.randomUserId(r))).getId()
+          : createdTasks.pop();
+      return () -> tasks.deleteTask(taskId, true);
+    }));
+
+    operations.put("rewards.getAll", bounded(r -> {
+      long userId = dataset.randomUserId(r);
+      return () -> rewards.getAllRewards(userId, false);
+    }));
+    operations.put("rewards.getAll(admin)", unbounded(r ->
+        () -> rewards.getAllRewards(dataset.getAdminId(), true)));
+    operations.put("rewards.getById", bounded(r -> {
+      long rewardId = dataset.randomRewardId(r);
+      return () -> rewards.getRewardById(rewardId);
+    }));
+    operations.put("rewards.getAvailable", bounded(r -> {
+      long userId = dataset.randomUserId(r);
+      return () -> rewards.getAvailableRewards(userId, false);
+    }));
+    operations.put("rewards.getRedeemed", bounded(r -> {
+      long userId = dataset.randomUserId(r);
+      return () -> rewards.getRedeemedRewards(userId, false);
+    }));
+    operations.put("rewards.getAllPage(admin)", bounded(r ->
+        () -> rewards.getAllRewardsPage(dataset.getAdminId(), true, dataset.randomRewardId(r), 50)));
+    operations.put("rewards.getAvailablePage", bounded(r -> {
+      long userId = dataset.randomUserId(r);
+      return () -> rewards.getAvailableRewardsPage(userId, false, null, 50);
+    }));
+    operations.put("rewards.getRedeemedPage", bounded(r -> {
+      long userId = dataset.randomUserId(r);
+      return () -> rewards.getRedeemedRewardsPage(userId, false, null, 50);
+    }));
+    operations.put("rewards.create", bounded(r -> {
+      User child = new User();
+      child.setId(dataset.randomUserId(r));
+      Reward reward = new Reward("Recompensa", "Premio", 20, false, child);
+      return () -> createdRewards.push(rewards.createReward(reward).getId());
+    }));
+    operations.put("rewards.redeem", bounded(r -> {
+      long rewardId = dataset.randomRewardId(r);
+      return () -> rewards.redeemReward(rewardId);
+    }));
+    operations.put("rewards.delete", bounded(r -> {
+      Long rewardId = createdRewards.isEmpty() ? dataset.randomRewardId(r) : createdRewards.pop();
+      return () -> rewards.deleteReward(rewardId, true);
+    }));
+
+    operations.put("users.getAll", unbounded(r -> users::getAllUsers));
+    operations.put("users.getPage", bounded(r ->
+        () -> users.getUsersPage(dataset.randomUserId(r), 50)));
+    operations.put("users.getById", bounded(r -> {
+      long userId = dataset.randomUserId(r);
+      return () -> users.getUserById(userId);
+    }));
+    operations.put("users.summary", bounded(r -> {
+      long userId = dataset.randomUserId(r);
+      return () -> summaries.getSummary(userId, today);
+    }));
+    operations.put("users.create", bounded(r -> {
+      User user = new User("scale-" + ++userSequence[0]);
+      return () -> createdUsers.push(users.createUser(user).getId());
+    }));
+    operations.put("users.loginChild", bounded(r -> {
+      String username = "gen-" + dataset.randomUserId(r);
+      return () -> users.login(username, null);
+    }));
+    operations.put("users.loginAdmin", bounded(r -> () -> users.login("parent", "secret")));
+    operations.put("users.update", bounded(r -> {
+      long userId = createdUsers.isEmpty()
+          ? users.createUser(new User("scale-" + ++userSequence[0])).getId()
+          : createdUsers.peek();
+      User user = new User("scale-" + ++userSequence[0]);
+      return () -> users.updateUser(userId, user);
+    }));
+    operations.put("users.addPoints", bounded(r -> {
+      long userId = dataset.randomUserId(r);
+      return () -> users.addPointsToUser(userId, 10);
+    }));
+    operations.put("users.subtractPoints", bounded(r -> {
+      long userId = dataset.randomUserId(r);
+      users.addPointsToUser(userId, 10);
+      return () -> users.subtractPointsFromUser(userId, 10);
+    }));
+    operations.put("users.delete", bounded(r -> {
+      Long userId = createdUsers.isEmpty()
+          ? users.createUser(new User("scale-" + ++userSequence[0])).getId()
+          : createdUsers.pop();
+      return () -> users.deleteUser(userId, true);
+    }));
+    return operations;
+  }
+
+  private static Task chore(Long userId) {
+    Task task = new Task();
+    task.setTitle("Tarea de escala");
+    task.setIsDaily(false);
+    task.setRewardPoints(10);
+    if (userId != null) {
+      User user = new User();
+      user.setId(userId);
+      task.setAssignedTo(user);
+    }
+    return task;
+  }
+
+  private static long usedHeapAfterGc() {
+    System.gc();
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+
+  private static Operation bounded(Function<Random, Runnable> prepare) {
+    return new Operation(prepare, false);
+  }
+
+  /**
+   * Operacion cuyo coste crece con el total de filas (listados completos, reinicio global).
+   */
+  private static Operation unbounded(Function<Random, Runnable> prepare) {
+    return new Operation(prepare, true);
+  }
+
+  /**
+   * Prepara los argumentos de cada llamada fuera de la medicion y devuelve la llamada a medir.
+   */
+  private static class Operation {
+
+    private final Function<Random, Runnable> prepare;
+    private final boolean unbounded;
+
+    Operation(Function<Random, Runnable> prepare, boolean unbounded) {
+      this.prepare = prepare;
+      this.unbounded = unbounded;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package com.marcosroyo.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.marcosroyo.backend.dto.TaskDto;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Arranca sobre una base de datos creada por la version anterior a Flyway (ddl-auto=update, solo
+ * users, tasks y rewards): Flyway la marca con la version 1 y aplica el resto de migraciones, y
+ * Hibernate valida el esquema resultante sin perder los datos.
+ */
+@SpringBootTest
+class LegacySchemaMigrationTest {
+
+  private static final String URL = "jdbc:h2:mem:legacy;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+      + "NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private TaskRepository taskRepo;
+
+  @DynamicPropertySource
+  static void legacyDatabase(DynamicPropertyRegistry registry) throws SQLException {
+    // Se crea antes que el contexto, que es el que ejecuta Flyway
+    try (Connection connection = DriverManager.getConnection(URL, "sa", "")) {
+      ScriptUtils.executeSqlScript(connection,
+          new ClassPathResource("db/legacy/pre_flyway_schema.sql"));
+    }
+    registry.add("spring.datasource.url", () -> URL);
+  }
+
+  @Test
+  void baselinesAndMigratesLegacySchema() {
+    List<String> versions = jdbcTemplate.queryForList(
+        "SELECT CONCAT(\"type\", ' ', \"version\") FROM \"flyway_schema_history\" "
+            + "WHERE \"success\" AND \"version\" IS NOT NULL ORDER BY \"installed_rank\"",
+        String.class);
+    // V1 no se ejecuta: la base de datos existente se marca como version 1
+    assertEquals(List.of("BASELINE 1", "SQL 1.1", "SQL 1.2", "SQL 2", "SQL 3", "SQL 4"), versions);
+
+    // Los datos siguen ahi y el saldo previo queda registrado como apertura del libro
+    assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class));
+    assertEquals(40, jdbcTemplate.queryForObject(
+        "SELECT SUM(delta) FROM points_ledger WHERE user_id = 2 AND reason = 'OPENING_BALANCE'",
+        Integer.class));
+    List<TaskDto> tasks = taskRepo.findDtosByAssignedToId(2L);
+    assertEquals(1, tasks.size());
+    assertEquals("Hacer la cama", tasks.get(0).getTitle());
+  }
+}
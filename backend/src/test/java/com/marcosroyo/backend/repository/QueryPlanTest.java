@@ -0,0 +1,284 @@
+package com.marcosroyo.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Ejecuta cada consulta de los repositorios contra H2 (con el esquema de las migraciones), repite
+ * la SQL generada con EXPLAIN y falla si alguna recorre una tabla entera. Los listados completos
+ * de administrador leen toda la tabla por definicion y no se comprueban.
+ */
+@SpringBootTest
+@Import(QueryPlanTest.RecordingConfig.class)
+class QueryPlanTest {
+
+  private static final Long USER_ID = 1L;
+  private static final LocalDate TODAY = LocalDate.of(2025, 1, 15);
+
+  @Autowired
+  private TaskRepository taskRepo;
+
+  @Autowired
+  private RewardRepository rewardRepo;
+
+  @Autowired
+  private UserRepository userRepo;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private RecordingDataSource dataSource;
+
+  @BeforeEach
+  void seed() {
+    if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tasks", Integer.class) > 0) {
+      return;
+    }
+    for (int u = 1; u <= 20; u++) {
+      jdbcTemplate.update(
+          "INSERT INTO users (username, password, is_admin, points) VALUES (?, 'x', 0, 0)",
+          "plan-user-" + u);
+    }
+    List<Long> userIds = jdbcTemplate.queryForList(
+        "SELECT id FROM users WHERE username LIKE 'plan-user-%'", Long.class);
+    List<Object[]> tasks = new ArrayList<>();
+    List<Object[]> rewards = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      Long userId = userIds.get(i % userIds.size());
+      tasks.add(new Object[] {"t" + i, i % 3 == 0, i % 2 == 0, TODAY.minusDays(i % 5), userId});
+      rewards.add(new Object[] {"r" + i, i % 4 == 0, userId});
+    }
+    jdbcTemplate.batchUpdate("INSERT INTO tasks (title, is_completed, is_daily,"
+        + " last_completed_date, reward_points, user_id) VALUES (?, ?, ?, ?, 10, ?)", tasks);
+    jdbcTemplate.batchUpdate("INSERT INTO rewards (title, is_redeemed, price, user_id)"
+        + " VALUES (?, ?, 5, ?)", rewards);
+    jdbcTemplate.execute("ANALYZE");
+  }
+
+  @Test
+  void finderQueriesUseIndexes() {
+    Map<String, Runnable> finders = new LinkedHashMap<>();
+
+    finders.put("TaskRepository.findById", () -> taskRepo.findById(USER_ID));
+    finders.put("TaskRepository.findByIsCompletedFalse", () -> taskRepo.findByIsCompletedFalse());
+    finders.put("TaskRepository.findByIsCompletedTrue", () -> taskRepo.findByIsCompletedTrue());
+    finders.put("TaskRepository.findByAssignedToId", () -> taskRepo.findByAssignedToId(USER_ID));
+    finders.put("TaskRepository.findByAssignedToIdAndIsCompletedFalse",
+        () -> taskRepo.findByAssignedToIdAndIsCompletedFalse(USER_ID));
+    finders.put("TaskRepository.findByAssignedToIdAndIsCompletedTrue",
+        () -> taskRepo.findByAssignedToIdAndIsCompletedTrue(USER_ID));
+    finders.put("TaskRepository.findByIsDailyTrueAndIsCompletedTrue",
+        () -> taskRepo.findByIsDailyTrueAndIsCompletedTrue());
+    finders.put("TaskRepository.findByAssignedToIdAndIsDailyTrueAndIsCompletedTrue",
+        () -> taskRepo.findByAssignedToIdAndIsDailyTrueAndIsCompletedTrue(USER_ID));
+    finders.put("TaskRepository.findByIdAndIsDailyTrue", () -> taskRepo.findByIdAndIsDailyTrue(1L));
+    finders.put("TaskRepository.findByIdAndIsCompletedTrue",
+        () -> taskRepo.findByIdAndIsCompletedTrue(1L));
+    finders.put("TaskRepository.findDtoById", () -> taskRepo.findDtoById(1L));
+    finders.put("TaskRepository.findDtosByAssignedToId",
+        () -> taskRepo.findDtosByAssignedToId(USER_ID));
+    finders.put("TaskRepository.findDtosByIsCompleted", () -> taskRepo.findDtosByIsCompleted(true));
+    finders.put("TaskRepository.findDtosByAssignedToIdAndIsCompleted",
+        () -> taskRepo.findDtosByAssignedToIdAndIsCompleted(USER_ID, false));
+    finders.put("TaskRepository.findDtosByAssignedToIdCompletedOn",
+        () -> taskRepo.findDtosByAssignedToIdCompletedOn(USER_ID, TODAY));
+    finders.put("TaskRepository.findDtosByAssignedToIdIncompleteOn",
+        () -> taskRepo.findDtosByAssignedToIdIncompleteOn(USER_ID, TODAY));
+    finders.put("TaskRepository.findDtosAfter", () -> taskRepo.findDtosAfter(100L, Limit.of(50)));
+    finders.put("TaskRepository.findDtosByAssignedToIdAfter",
+        () -> taskRepo.findDtosByAssignedToIdAfter(USER_ID, 100L, Limit.of(50)));
+    finders.put("TaskRepository.findDtosByIsCompletedAfter",
+        () -> taskRepo.findDtosByIsCompletedAfter(false, 100L, Limit.of(50)));
+    finders.put("TaskRepository.findDtosByAssignedToIdAndIsCompletedAfter",
+        () -> taskRepo.findDtosByAssignedToIdAndIsCompletedAfter(USER_ID, false, 100L,
+            Limit.of(50)));
+    finders.put("TaskRepository.findDtosCompletedOnAfter",
+        () -> taskRepo.findDtosCompletedOnAfter(TODAY, 100L, Limit.of(50)));
+    finders.put("TaskRepository.findDtosIncompleteOnAfter",
+        () -> taskRepo.findDtosIncompleteOnAfter(TODAY, 100L, Limit.of(50)));
+    finders.put("TaskRepository.findDtosByAssignedToIdCompletedOnAfter",
+        () -> taskRepo.findDtosByAssignedToIdCompletedOnAfter(USER_ID, TODAY, 100L,
+            Limit.of(50)));
+    finders.put("TaskRepository.findDtosByAssignedToIdIncompleteOnAfter",
+        () -> taskRepo.findDtosByAssignedToIdIncompleteOnAfter(USER_ID, TODAY, 100L,
+            Limit.of(50)));
+
+    finders.put("RewardRepository.findById", () -> rewardRepo.findById(1L));
+    finders.put("RewardRepository.findByAssignedToIdAndIsRedeemedFalse",
+        () -> rewardRepo.findByAssignedToIdAndIsRedeemedFalse(USER_ID));
+    finders.put("RewardRepository.findByAssignedToIdAndIsRedeemedTrue",
+        () -> rewardRepo.findByAssignedToIdAndIsRedeemedTrue(USER_ID));
+    finders.put("RewardRepository.findByIsRedeemedFalse", () -> rewardRepo.findByIsRedeemedFalse());
+    finders.put("RewardRepository.findByIsRedeemedTrue", () -> rewardRepo.findByIsRedeemedTrue());
+    finders.put("RewardRepository.findByAssignedToId",
+        () -> rewardRepo.findByAssignedToId(USER_ID));
+    finders.put("RewardRepository.findDtoById", () -> rewardRepo.findDtoById(1L));
+    finders.put("RewardRepository.findDtosByAssignedToId",
+        () -> rewardRepo.findDtosByAssignedToId(USER_ID));
+    finders.put("RewardRepository.findDtosByIsRedeemed",
+        () -> rewardRepo.findDtosByIsRedeemed(true));
+    finders.put("RewardRepository.findDtosByAssignedToIdAndIsRedeemed",
+        () -> rewardRepo.findDtosByAssignedToIdAndIsRedeemed(USER_ID, false));
+    finders.put("RewardRepository.findDtosAfter",
+        () -> rewardRepo.findDtosAfter(100L, Limit.of(50)));
+    finders.put("RewardRepository.findDtosByAssignedToIdAfter",
+        () -> rewardRepo.findDtosByAssignedToIdAfter(USER_ID, 100L, Limit.of(50)));
+    finders.put("RewardRepository.findDtosByIsRedeemedAfter",
+        () -> rewardRepo.findDtosByIsRedeemedAfter(false, 100L, Limit.of(50)));
+    finders.put("RewardRepository.findDtosByAssignedToIdAndIsRedeemedAfter",
+        () -> rewardRepo.findDtosByAssignedToIdAndIsRedeemedAfter(USER_ID, false, 100L,
+            Limit.of(50)));
+
+    finders.put("UserRepository.findById", () -> userRepo.findById(USER_ID));
+    finders.put("UserRepository.findByUsername", () -> userRepo.findByUsername("plan-user-1"));
+    finders.put("UserRepository.findDtoById", () -> userRepo.findDtoById(USER_ID));
+    finders.put("UserRepository.findDtosAfter", () -> userRepo.findDtosAfter(0L, Limit.of(50)));
+
+    List<String> fullScans = new ArrayList<>();
+    finders.forEach((name, finder) -> {
+      for (String plan : explain(name, finder)) {
+        if (plan.contains("tableScan")) {
+          fullScans.add(name + ":\n" + plan);
+        }
+      }
+    });
+    assertTrue(fullScans.isEmpty(), "Consultas que recorren la tabla entera:\n"
+        + String.join("\n\n", fullScans));
+  }
+
+  private List<String> explain(String name, Runnable finder) {
+    dataSource.statements.clear();
+    dataSource.recording = true;
+    try {
+      finder.run();
+    } finally {
+      dataSource.recording = false;
+    }
+    assertTrue(!dataSource.statements.isEmpty(), name + " no ejecuto ninguna consulta");
+
+    List<String> plans = new ArrayList<>();
+    for (RecordedStatement statement : dataSource.statements) {
+      try (Connection con = dataSource.getTargetDataSource().getConnection();
+          PreparedStatement ps = con.prepareStatement("EXPLAIN " + statement.sql())) {
+        for (Map.Entry<Integer, Object> param : statement.params().entrySet()) {
+          ps.setObject(param.getKey(), param.getValue());
+        }
+        try (ResultSet rs = ps.executeQuery()) {
+          while (rs.next()) {
+            plans.add(rs.getString(1));
+          }
+        }
+      } catch (SQLException e) {
+        throw new IllegalStateException("EXPLAIN fallo para " + name, e);
+      }
+    }
+    return plans;
+  }
+
+  record RecordedStatement(String sql, Map<Integer, Object> params) {
+  }
+
+  /**
+   * DataSource que guarda la SQL y los parametros de cada consulta mientras esta grabando.
+   */
+  static class RecordingDataSource extends DelegatingDataSource {
+
+    final List<RecordedStatement> statements = new CopyOnWriteArrayList<>();
+    volatile boolean recording;
+
+    RecordingDataSource(DataSource target) {
+      super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+      return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+      return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+          new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof PreparedStatement ps
+                && method.getName().equals("prepareStatement")) {
+              return wrap(ps, (String) args[0]);
+            }
+            return result;
+          });
+    }
+
+    private PreparedStatement wrap(PreparedStatement statement, String sql) {
+      Map<Integer, Object> params = new TreeMap<>();
+      return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+          new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2
+                && args[0] instanceof Integer index) {
+              params.put(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+              params.clear();
+            } else if (recording && name.equals("executeQuery")) {
+              statements.add(new RecordedStatement(sql, new TreeMap<>(params)));
+            }
+            return invoke(statement, method, args);
+          });
+    }
+
+    private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args)
+        throws Throwable {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getTargetException();
+      }
+    }
+  }
+
+  @TestConfiguration
+  static class RecordingConfig {
+
+    @Bean
+    static BeanPostProcessor recordingDataSourcePostProcessor() {
+      return new BeanPostProcessor() {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+          if (bean instanceof DataSource target && !(bean instanceof RecordingDataSource)) {
+            return new RecordingDataSource(target);
+          }
+          return bean;
+        }
+      };
+    }
+  }
+}
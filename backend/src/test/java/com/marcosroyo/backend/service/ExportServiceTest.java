@@ -0,0 +1,81 @@
+package com.marcosroyo.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marcosroyo.backend.service.ExportService.Dataset;
+import com.marcosroyo.backend.service.ExportService.Format;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Con la completitud diaria derivada, la exportacion de tareas da el mismo completed que el API:
+ * una diaria solo esta completada si lastCompletedDate es hoy, aunque is_completed siga a 1.
+ */
+@SpringBootTest(properties = "tasks.daily.derived-completion=true")
+class ExportServiceTest {
+
+  @Autowired
+  private ExportService exportService;
+
+  @Autowired
+  private UserDirectory userDirectory;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Test
+  void exportsDerivedCompletionOfDailyTasks() throws Exception {
+    jdbcTemplate.update("INSERT INTO users (username, password, is_admin, points) "
+        + "VALUES ('export-user', NULL, 0, 0)");
+    userDirectory.load();
+    Long userId = jdbcTemplate.queryForObject(
+        "SELECT id FROM users WHERE username = 'export-user'", Long.class);
+    LocalDate today = LocalDate.now();
+    insertTask(userId, "hoy", true, true, today);
+    insertTask(userId, "ayer", true, true, today.minusDays(1));
+    insertTask(userId, "nunca", false, true, null);
+    insertTask(userId, "unica", true, false, today.minusDays(1));
+    insertTask(userId, "pendiente", false, null, null);
+
+    List<JsonNode> tasks = exportNdjson(userId);
+    assertEquals(List.of("true", "false", "false", "true", "false"),
+        tasks.stream().map(task -> task.get("completed").asText()).toList());
+    assertEquals(List.of("true", "true", "true", "false", "null"),
+        tasks.stream().map(task -> task.get("daily").asText()).toList());
+
+    ByteArrayOutputStream csv = new ByteArrayOutputStream();
+    exportService.export(Dataset.TASKS, Format.CSV, userId, csv);
+    String[] lines = csv.toString(StandardCharsets.UTF_8).split("\r\n");
+    assertEquals(6, lines.length);
+    assertEquals("false", lines[2].split(",")[3]);
+  }
+
+  private List<JsonNode> exportNdjson(Long userId) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    exportService.export(Dataset.TASKS, Format.NDJSON, userId, out);
+    List<JsonNode> rows = new ArrayList<>();
+    for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+      rows.add(objectMapper.readTree(line));
+    }
+    return rows;
+  }
+
+  private void insertTask(Long userId, String title, boolean completed, Boolean daily,
+      LocalDate completedOn) {
+    jdbcTemplate.update("INSERT INTO tasks (title, description, is_completed, is_daily, "
+            + "last_completed_date, reward_points, user_id) VALUES (?, NULL, ?, ?, ?, 0, ?)",
+        title, completed, daily, completedOn, userId);
+  }
+}
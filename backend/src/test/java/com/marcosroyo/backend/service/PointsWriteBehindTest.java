@@ -0,0 +1,241 @@
+package com.marcosroyo.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.marcosroyo.backend.model.PointsLedgerEntry.Reason;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Escritura diferida de puntos: los abonos se anotan en el diario al confirmar y se aplican en un
+ * solo volcado, los deshechos dejan marca y al recuperar un segmento se aplica una sola vez, sin
+ * lineas cortadas y decidiendo los abonos en duda con la fila de la tarea. El saldo leido mientras
+ * se vuelca no cuenta dos veces lo que se esta confirmando.
+ */
+@SpringBootTest(properties = {"points.write-behind.enabled=true",
+    "points.write-behind.flush-ms=3600000", "points.write-behind.instance-id=test"})
+class PointsWriteBehindTest {
+
+  private static final LocalDate DAY = LocalDate.of(2026, 3, 2);
+
+  private static Path journal;
+
+  @Autowired
+  private PointsWriteBehind writeBehind;
+
+  @Autowired
+  private PointsService pointsService;
+
+  @Autowired
+  private TaskService taskService;
+
+  @Autowired
+  private UserDirectory userDirectory;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @DynamicPropertySource
+  static void journalDirectory(DynamicPropertyRegistry registry) throws IOException {
+    journal = Files.createTempDirectory("points-journal");
+    registry.add("points.write-behind.journal-dir", journal::toString);
+  }
+
+  @AfterEach
+  void flushLeftovers() {
+    writeBehind.flush();
+  }
+
+  @Test
+  void journalsCommittedCreditsAndAppliesThemInOneFlush() throws IOException {
+    Long userId = insertUser("journal-user");
+    Long first = insertTask(userId, 5, false, null);
+    Long second = insertTask(userId, 7, false, null);
+
+    taskService.completeTask(first, DAY);
+    taskService.completeTask(second, DAY);
+
+    assertEquals(0, storedPoints(userId));
+    assertEquals(12, pointsService.getBalance(userId));
+    List<String> lines = journalLines();
+    assertEquals(4, lines.size());
+    assertTrue(lines.get(0).startsWith("C,0," + userId + ",5,TASK_COMPLETED," + first + ","
+        + DAY + ","), lines.get(0));
+    assertEquals("K,0", lines.get(1));
+    assertEquals("K,1", lines.get(3));
+
+    assertEquals(2, writeBehind.flush());
+    assertEquals(12, storedPoints(userId));
+    assertEquals(12, pointsService.getBalance(userId));
+    assertFalse(writeBehind.hasPending());
+    assertEquals(2, ledgerRows(userId));
+    assertEquals(List.of(), journalFiles());
+    assertTrue(jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM points_journal_segments WHERE segment_id LIKE 'test-%'",
+        Integer.class) > 0);
+  }
+
+  @Test
+  void tombstonesCreditsWhoseCommitFails() throws IOException {
+    Long userId = insertUser("tombstone-user");
+
+    assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(
+        status -> {
+          pointsService.credit(userId, 9, Reason.MANUAL_ADJUSTMENT, null);
+          assertEquals(9, writeBehind.getPending(userId));
+          TransactionSynchronizationManager.registerSynchronization(
+              new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                  throw new IllegalStateException("commit fallido");
+                }
+              });
+        }));
+
+    List<String> lines = journalLines();
+    assertEquals(2, lines.size());
+    assertTrue(lines.get(0).startsWith("C,0," + userId + ",9,"), lines.get(0));
+    assertEquals("T,0", lines.get(1));
+    assertEquals(0, writeBehind.getPending(userId));
+    assertEquals(0, writeBehind.flush());
+    assertEquals(0, storedPoints(userId));
+    assertEquals(0, ledgerRows(userId));
+  }
+
+  @Test
+  void recoveryAppliesEachSegmentOnceAndSettlesInDoubtCredits() throws IOException {
+    Long userId = insertUser("recovery-user");
+    Long completed = insertTask(userId, 0, true, DAY);
+    Long pending = insertTask(userId, 0, false, null);
+    String segment = String.join("\n",
+        credit(0, userId, 5, completed),
+        "K,0",
+        credit(1, userId, 7, pending),
+        "T,1",
+        // En duda: la tarea quedo completada ese dia, asi que se confirmo
+        credit(2, userId, 11, completed),
+        // En duda: la tarea sigue pendiente
+        credit(3, userId, 13, pending),
+        // En duda y sin tarea con la que decidirlo
+        "C,4," + userId + ",17,MANUAL_ADJUSTMENT,,," + DAY.atTime(10, 0),
+        "no es una linea del diario",
+        // Cortada: se podria leer, pero le falta el salto de linea
+        credit(5, userId, 19, completed));
+    Path file = journal.resolve("points-other-recovery.journal");
+
+    Files.writeString(file, segment, StandardCharsets.UTF_8);
+    writeBehind.recover();
+    assertEquals(16, storedPoints(userId));
+    assertEquals(2, ledgerRows(userId));
+    assertFalse(Files.exists(file));
+
+    // Caida tras confirmar el volcado y antes de borrar el fichero
+    Files.writeString(file, segment, StandardCharsets.UTF_8);
+    writeBehind.recover();
+    assertEquals(16, storedPoints(userId));
+    assertEquals(2, ledgerRows(userId));
+    assertFalse(Files.exists(file));
+  }
+
+  @Test
+  void balanceReadDuringFlushCountsEachCreditOnce() throws Exception {
+    Long userId = insertUser("flush-reader-user");
+    ExecutorService reader = Executors.newSingleThreadExecutor();
+    try {
+      for (int round = 1; round <= 50; round++) {
+        transactionTemplate.executeWithoutResult(
+            status -> pointsService.credit(userId, 1, Reason.MANUAL_ADJUSTMENT, null));
+        int expected = round;
+        assertEquals(expected, pointsService.getBalance(userId));
+
+        AtomicBoolean flushed = new AtomicBoolean();
+        Future<List<Integer>> reads = reader.submit(() -> {
+          List<Integer> wrong = new ArrayList<>();
+          while (!flushed.get()) {
+            Integer balance = pointsService.getBalance(userId);
+            if (balance != expected) {
+              wrong.add(balance);
+            }
+          }
+          return wrong;
+        });
+        assertEquals(1, writeBehind.flush());
+        flushed.set(true);
+        assertEquals(List.of(), reads.get(), "saldos leidos durante el volcado " + round);
+        assertEquals(expected, storedPoints(userId));
+      }
+    } finally {
+      reader.shutdownNow();
+    }
+  }
+
+  private static String credit(int seq, Long userId, int points, Long taskId) {
+    return "C," + seq + "," + userId + "," + points + ",TASK_COMPLETED," + taskId + "," + DAY
+        + "," + DAY.atTime(10, 0);
+  }
+
+  private Long insertUser(String username) {
+    jdbcTemplate.update("INSERT INTO users (username, password, is_admin, points) "
+        + "VALUES (?, NULL, 0, 0)", username);
+    userDirectory.load();
+    return jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class,
+        username);
+  }
+
+  private Long insertTask(Long userId, int rewardPoints, boolean completed,
+      LocalDate completedOn) {
+    jdbcTemplate.update("INSERT INTO tasks (title, description, is_completed, is_daily, "
+            + "last_completed_date, reward_points, user_id) "
+            + "VALUES ('journal', NULL, ?, 0, ?, ?, ?)",
+        completed, completedOn, rewardPoints, userId);
+    return jdbcTemplate.queryForObject("SELECT MAX(id) FROM tasks", Long.class);
+  }
+
+  private int storedPoints(Long userId) {
+    return jdbcTemplate.queryForObject("SELECT points FROM users WHERE id = ?", Integer.class,
+        userId);
+  }
+
+  private int ledgerRows(Long userId) {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM points_ledger WHERE user_id = ?",
+        Integer.class, userId);
+  }
+
+  private List<Path> journalFiles() throws IOException {
+    try (Stream<Path> files = Files.list(journal)) {
+      return files.toList();
+    }
+  }
+
+  private List<String> journalLines() throws IOException {
+    List<Path> files = journalFiles();
+    assertEquals(1, files.size());
+    return Files.readAllLines(files.get(0), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,74 @@
+package com.marcosroyo.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.marcosroyo.backend.dto.TaskDto;
+import com.marcosroyo.backend.exceptions.InvalidRequestException;
+import com.marcosroyo.backend.model.Task;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Alta de tareas por lotes con lotes JDBC pequeños, para que una peticion se reparta en varios:
+ * los IDs devueltos son los de las filas insertadas y por encima del maximo no se inserta nada.
+ */
+@SpringBootTest(properties = {"tasks.batch.insert-size=2", "tasks.batch.max-size=6"})
+class TaskServiceBatchTest {
+
+  @Autowired
+  private TaskService taskService;
+
+  @Autowired
+  private UserDirectory userDirectory;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void createsTasksWithGeneratedIdsAndRejectsOversizedBatches() {
+    Long first = insertUser("batch-user-1");
+    Long second = insertUser("batch-user-2");
+    List<Task> templates = List.of(template("batch A", 5), template("batch B", 7),
+        template("batch C", 9));
+
+    List<TaskDto> created = taskService.createTasks(templates, List.of(first, second));
+
+    assertEquals(6, created.size());
+    Map<Long, String> stored = jdbcTemplate.queryForList(
+            "SELECT id, title, user_id FROM tasks WHERE title LIKE 'batch %'").stream()
+        .collect(Collectors.toMap(row -> ((Number) row.get("id")).longValue(),
+            row -> row.get("title") + "/" + row.get("user_id")));
+    assertEquals(6, stored.size());
+    for (TaskDto task : created) {
+      assertEquals(task.getTitle() + "/" + task.getAssignedUserId(), stored.get(task.getId()));
+    }
+
+    List<Task> oversized = List.of(template("batch X", 1), template("batch Y", 1),
+        template("batch Z", 1), template("batch W", 1));
+    assertThrows(InvalidRequestException.class,
+        () -> taskService.createTasks(oversized, List.of(first, second)));
+    assertEquals(6, jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM tasks WHERE title LIKE 'batch %'", Integer.class));
+  }
+
+  private Long insertUser(String username) {
+    jdbcTemplate.update("INSERT INTO users (username, password, is_admin, points) "
+        + "VALUES (?, NULL, 0, 0)", username);
+    userDirectory.load();
+    return jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class,
+        username);
+  }
+
+  private static Task template(String title, int rewardPoints) {
+    Task task = new Task();
+    task.setTitle(title);
+    task.setRewardPoints(rewardPoints);
+    return task;
+  }
+}
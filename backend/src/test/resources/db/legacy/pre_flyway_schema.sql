@@ -0,0 +1,13 @@
+-- Esquema que generaba spring.jpa.hibernate.ddl-auto=update antes de Flyway (MySQL8Dialect), con
+-- los nombres de restricciones de Hibernate y algunas filas de una instalacion en uso.
+create table users (id bigint not null auto_increment, is_admin bit not null, password varchar(255), points integer not null, username varchar(255) not null, primary key (id));
+create table tasks (id bigint not null auto_increment, description varchar(255), is_completed bit not null, is_daily bit, last_completed_date date, reward_points integer not null, title varchar(255), user_id bigint, primary key (id));
+create table rewards (id bigint not null auto_increment, description varchar(255), is_redeemed bit not null, price integer not null, title varchar(255), user_id bigint, primary key (id));
+alter table users add constraint UKr43af9ap4edm43mmtq01oddj6 unique (username);
+alter table tasks add constraint FK6s1ob9k4ihi75xbxe2w0ylsdh foreign key (user_id) references users (id);
+alter table rewards add constraint FKdnpc9o5lbhse9amuwkh1ldc5b foreign key (user_id) references users (id);
+
+insert into users (id, is_admin, password, points, username) values (1, 1, 'secret', 0, 'legacy-admin');
+insert into users (id, is_admin, password, points, username) values (2, 0, null, 40, 'legacy-kid');
+insert into tasks (id, description, is_completed, is_daily, last_completed_date, reward_points, title, user_id) values (1, null, 1, 1, '2025-01-14', 10, 'Hacer la cama', 2);
+insert into rewards (id, description, is_redeemed, price, title, user_id) values (1, null, 0, 30, 'Helado', 2);
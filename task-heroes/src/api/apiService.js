@@ -50,6 +50,11 @@ const apiService = {
         },
 
         getUser: (id) => api.get(ENDPOINTS.USERS.GET_USER(id)),
+        // Usuario, tareas y recompensas de la pantalla de inicio en una sola peticion
+        getSummary: (id) => {
+            const currentDate = new Date().toISOString().split('T')[0];
+            return api.get(ENDPOINTS.USERS.GET_SUMMARY(id, currentDate));
+        },
         createUser: (userData) => api.post(ENDPOINTS.USERS.CREATE_USER(), userData),
         postLoginUser: (credentials) => api.post(ENDPOINTS.USERS.POST_LOGIN_USER(), credentials),
         putUpdateUser: (id, userData) => api.put(ENDPOINTS.USERS.PUT_UPDATE_USER(id), userData),
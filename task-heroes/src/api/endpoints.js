@@ -2,6 +2,7 @@ const ENDPOINTS = {
     USERS: {
         GET_ALL: (userId, isAdmin) =>`/users?userId=${userId}&isAdmin=${isAdmin}`,
         GET_USER: (id) => `/users/${id}`,
+        GET_SUMMARY: (id, currentDate) => `/users/${id}/summary?currentDate=${currentDate}`,
         CREATE_USER: () => `/users`,
         POST_LOGIN_USER: () => `/users/login`,
         PUT_UPDATE_USER: (id) => `/users/${id}`,